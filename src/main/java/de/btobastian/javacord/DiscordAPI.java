@@ -24,6 +24,13 @@ import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.permissions.Permissions;
 import de.btobastian.javacord.entities.permissions.PermissionsBuilder;
 import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.listener.publisher.BufferOverflowStrategy;
+import de.btobastian.javacord.listener.publisher.MessageEditEvent;
+import de.btobastian.javacord.listener.publisher.Publisher;
+import de.btobastian.javacord.listener.publisher.Subscriber;
+import de.btobastian.javacord.utils.EventFamily;
+import de.btobastian.javacord.utils.MessageCacheAdmission;
+import de.btobastian.javacord.utils.ShardManager;
 import de.btobastian.javacord.utils.ThreadPool;
 import de.btobastian.javacord.utils.ratelimits.RateLimitManager;
 
@@ -178,6 +185,45 @@ public interface DiscordAPI {
      */
     public void registerListener(Listener listener);
 
+    /**
+     * Registers a listener which is only called for events of the server with the given id.
+     * Only message, reaction, typing and server member events are passed to listeners which are registered for a
+     * server, channel or user. Dispatching these events only looks at the listeners of the affected ids, so
+     * registering many scoped listeners is much cheaper than checking the server in every listener.
+     *
+     * @param serverId The id of the server.
+     * @param listener The listener to register.
+     */
+    public void registerServerListener(String serverId, Listener listener);
+
+    /**
+     * Registers a listener which is only called for events of the channel with the given id.
+     * See {@link #registerServerListener(String, Listener)} for the supported events.
+     *
+     * @param channelId The id of the channel.
+     * @param listener The listener to register.
+     */
+    public void registerChannelListener(String channelId, Listener listener);
+
+    /**
+     * Registers a listener which is only called for events caused by the user with the given id (e.g. messages the
+     * user wrote or reactions the user added).
+     * See {@link #registerServerListener(String, Listener)} for the supported events.
+     *
+     * @param userId The id of the user.
+     * @param listener The listener to register.
+     */
+    public void registerUserListener(String userId, Listener listener);
+
+    /**
+     * Unregisters a listener.
+     * This also removes the listener from all servers, channels and users it was registered for.
+     *
+     * @param listener The listener to unregister.
+     * @return Whether the listener was registered or not.
+     */
+    public boolean unregisterListener(Listener listener);
+
     /**
      * Gets a message by its id.
      * This method may return <code>null</code> even if the message exists!
@@ -437,6 +483,67 @@ public interface DiscordAPI {
      */
     public int getMessageCacheSize();
 
+    /**
+     * Sets the maximum amount of cached messages per channel.
+     * If a channel contains more messages, its oldest message will be removed. This prevents that a single busy
+     * channel removes the messages of all other channels from the cache.
+     *
+     * @param size The maximum amount of messages per channel. Default: {@link Integer#MAX_VALUE} (only limited by
+     *             the size of the cache)
+     */
+    public void setMessageCacheSizePerChannel(int size);
+
+    /**
+     * Gets the maximum amount of cached messages per channel.
+     *
+     * @return The maximum amount of messages per channel.
+     */
+    public int getMessageCacheSizePerChannel();
+
+    /**
+     * Sets the time messages stay in the cache.
+     *
+     * @param seconds The maximum age of cached messages in seconds. <code>0</code> for no limit. Default: 0
+     */
+    public void setMessageCacheMaxAge(int seconds);
+
+    /**
+     * Gets the time messages stay in the cache.
+     *
+     * @return The maximum age of cached messages in seconds. <code>0</code> if there's no limit.
+     */
+    public int getMessageCacheMaxAge();
+
+    /**
+     * Sets the maximum estimated memory usage of all cached messages.
+     * If it's exceeded, the oldest messages will be removed.
+     *
+     * @param bytes The memory budget in bytes. <code>0</code> for no limit. Default: 0
+     */
+    public void setMessageCacheMemoryBudget(long bytes);
+
+    /**
+     * Gets the maximum estimated memory usage of all cached messages.
+     *
+     * @return The memory budget in bytes. <code>0</code> if there's no limit.
+     */
+    public long getMessageCacheMemoryBudget();
+
+    /**
+     * Sets the admission which decides which messages are cached (e.g. to not cache own messages or messages of
+     * message histories).
+     *
+     * @param admission The admission. Default: {@link MessageCacheAdmission#ALL}
+     */
+    public void setMessageCacheAdmission(MessageCacheAdmission admission);
+
+    /**
+     * Gets the admission which decides which messages are cached.
+     *
+     * @return The admission.
+     */
+    public MessageCacheAdmission getMessageCacheAdmission();
+
     /**
      * Gets a new permissions builder with every type set to {@link de.btobastian.javacord.entities.permissions.PermissionState#NONE}
      *
@@ -495,6 +602,23 @@ public interface DiscordAPI {
      */
     public boolean isWaitingForServersOnStartup();
 
+    /**
+     * Sets the maximum time the bot waits for all servers to be loaded on startup.
+     * If the timeout is reached (e.g. because some servers are affected by an outage), the bot continues with the
+     * servers which are loaded.
+     * Use a {@link de.btobastian.javacord.listener.server.ServerLoadListener} to track the progress.
+     *
+     * @param seconds The timeout in seconds. <code>0</code> to wait without timeout. Default: 120
+     */
+    public void setStartupTimeout(int seconds);
+
+    /**
+     * Gets the maximum time the bot waits for all servers to be loaded on startup.
+     *
+     * @return The timeout in seconds. <code>0</code> if the bot waits without timeout.
+     */
+    public int getStartupTimeout();
+
     /**
      * Disconnects the bot.
      * After disconnecting you should NOT use this instance again.
@@ -531,4 +655,270 @@ public interface DiscordAPI {
      */
     public boolean isLazyLoading();
 
+    /**
+     * Sets the total amount of shards (websocket connections) the bot should use.
+     * Every shard receives the events of a part of the servers, but all shards share the same cache and listeners.
+     * Discord requires sharding for bots in more than 2500 servers.
+     * This must be set before connecting!
+     *
+     * @param totalShards The total amount of shards. Default: 1
+     */
+    public void setTotalShards(int totalShards);
+
+    /**
+     * Gets the total amount of shards (websocket connections) the bot uses.
+     *
+     * @return The total amount of shards.
+     */
+    public int getTotalShards();
+
+    /**
+     * Sets the amount of threads (lanes) which handle received packets.
+     * All packets of a server are handled by the same lane in the order they were received, but packets of different
+     * servers can be handled in parallel. Listeners are still called one after another (see
+     * {@link #setListenerLanes(int)}).
+     * This must be set before connecting!
+     *
+     * @param lanes The amount of lanes. Default: 1
+     */
+    public void setPacketHandlerLanes(int lanes);
+
+    /**
+     * Gets the amount of threads (lanes) which handle received packets.
+     *
+     * @return The amount of lanes.
+     */
+    public int getPacketHandlerLanes();
+
+    /**
+     * Gets the amount of packets which wait to be handled by the given lane.
+     *
+     * @param lane The lane (from <code>0</code> to <code>getPacketHandlerLanes() - 1</code>).
+     * @return The amount of waiting packets.
+     */
+    public int getPacketHandlerQueueSize(int lane);
+
+    /**
+     * Sets the amount of threads (lanes) which call the listeners.
+     * By default all listeners are called one after another by a single thread, so a slow listener delays all other
+     * events. With more than one lane, listeners of the same server (or private channel) are still called in the
+     * order the events were received, but listeners of different servers can be called in parallel. Listeners which
+     * are used by more than one lane must be thread-safe.
+     *
+     * @param lanes The amount of lanes. Default: 1
+     */
+    public void setListenerLanes(int lanes);
+
+    /**
+     * Gets the amount of threads (lanes) which call the listeners.
+     *
+     * @return The amount of lanes.
+     */
+    public int getListenerLanes();
+
+    /**
+     * Gets the amount of events which wait to be passed to the listeners by the given lane.
+     *
+     * @param lane The lane (from <code>0</code> to <code>getListenerLanes() - 1</code>).
+     * @return The amount of waiting events.
+     */
+    public int getListenerQueueSize(int lane);
+
+    /**
+     * Sets the maximum amount of events which are passed to batch listeners (like
+     * {@link de.btobastian.javacord.listener.message.MessageCreateBatchListener}) at once.
+     * A batch is passed to the listeners as soon as it's full or the batch window is over.
+     *
+     * @param size The maximum size of a batch. Default: 100
+     */
+    public void setListenerBatchSize(int size);
+
+    /**
+     * Gets the maximum amount of events which are passed to batch listeners at once.
+     *
+     * @return The maximum size of a batch.
+     */
+    public int getListenerBatchSize();
+
+    /**
+     * Sets the time events are collected for batch listeners before the batch is passed to the listeners, even if
+     * it's not full. The window starts with the first event of a batch.
+     *
+     * @param milliseconds The batch window in milliseconds. Default: 100
+     */
+    public void setListenerBatchWindow(int milliseconds);
+
+    /**
+     * Gets the time events are collected for batch listeners before the batch is passed to the listeners.
+     *
+     * @return The batch window in milliseconds.
+     */
+    public int getListenerBatchWindow();
+
+    /**
+     * Sets the time presence updates are collected before the cache is updated.
+     * During this window only the latest status, name and game of every user is kept, so a user whose presence
+     * changes several times per window causes at most one status, name and game change event. The cache is up to
+     * one window behind.
+     *
+     * @param milliseconds The coalescing window in milliseconds. <code>0</code> to handle every presence update
+     *                     immediately. Default: 0
+     */
+    public void setPresenceCoalescingWindow(int milliseconds);
+
+    /**
+     * Gets the time presence updates are collected before the cache is updated.
+     *
+     * @return The coalescing window in milliseconds. <code>0</code> if presence updates are handled immediately.
+     */
+    public int getPresenceCoalescingWindow();
+
+    /**
+     * Gets a publisher of all created messages.
+     * In contrast to listeners, subscribers only receive as many messages as they requested. Every subscriber has its
+     * own buffer (256 messages by default, the oldest message is dropped if it's full) and is called by its own task,
+     * so a slow subscriber doesn't delay other subscribers or listeners. The buffer can be configured per subscriber
+     * with {@link Publisher#subscribe(Subscriber, int, BufferOverflowStrategy)}.
+     * The subscribers are completed when the api is disconnected (see {@link #disconnect()}).
+     *
+     * @return A publisher of all created messages.
+     */
+    public Publisher<Message> getMessageCreatePublisher();
+
+    /**
+     * Gets a publisher of all edited messages and their old content.
+     * See {@link #getMessageCreatePublisher()} for details.
+     *
+     * @return A publisher of all edited messages.
+     */
+    public Publisher<MessageEditEvent> getMessageEditPublisher();
+
+    /**
+     * Gets a publisher of all deleted messages.
+     * See {@link #getMessageCreatePublisher()} for details.
+     *
+     * @return A publisher of all deleted messages.
+     */
+    public Publisher<Message> getMessageDeletePublisher();
+
+    /**
+     * Sets the size of the buffer between the websocket reading thread and a separate decoder thread.
+     * If it's enabled, the reading thread only stores the received frames in the buffer and a decoder thread
+     * decompresses, parses and handles them, so slow decoding doesn't delay reading the socket.
+     * The size is rounded up to the next power of two.
+     * This must be set before connecting!
+     *
+     * @param size The amount of frames the buffer can hold. <code>0</code> to decode in the reading thread.
+     *             Default: 0
+     */
+    public void setFrameBufferSize(int size);
+
+    /**
+     * Gets the size of the buffer between the websocket reading thread and the decoder thread.
+     *
+     * @return The amount of frames the buffer can hold. <code>0</code> if frames are decoded in the reading thread.
+     */
+    public int getFrameBufferSize();
+
+    /**
+     * Gets the shard manager which contains the websocket connections of the bot.
+     * It can be used to get the status and latency of every shard.
+     *
+     * @return The shard manager. <code>Null</code> if the bot isn't connected.
+     */
+    public ShardManager getShardManager();
+
+    /**
+     * Gets the gateway ping (the round-trip time of the last heartbeat).
+     * If the bot uses more than one shard, this is the average of all shards.
+     *
+     * @return The gateway ping in milliseconds. <code>-1</code> if it's unknown (e.g. not connected yet).
+     */
+    public long getGatewayPing();
+
+    /**
+     * Gets the average gateway ping of the last heartbeats.
+     * If the bot uses more than one shard, this is the average of all shards.
+     *
+     * @return The average gateway ping in milliseconds. <code>-1</code> if it's unknown (e.g. not connected yet).
+     */
+    public long getAverageGatewayPing();
+
+    /**
+     * Gets the amount of compressed bytes the bot received from the gateway.
+     * Only compressed payloads are counted, which are all payloads if zlib-stream compression is used.
+     * If the bot uses more than one shard, this is the sum of all shards.
+     *
+     * @return The amount of compressed bytes. <code>0</code> if nothing was received yet.
+     * @see #setZlibStreamCompression(boolean)
+     */
+    public long getGatewayCompressedBytes();
+
+    /**
+     * Gets the amount of bytes the compressed gateway payloads had after decompression.
+     * Together with {@link #getGatewayCompressedBytes()} this can be used to calculate the compression ratio.
+     *
+     * @return The amount of decompressed bytes. <code>0</code> if nothing was received yet.
+     */
+    public long getGatewayDecompressedBytes();
+
+    /**
+     * Sets the event families the bot is subscribed to.
+     * Packets of other families are dropped without being parsed and the cache data which is only kept up to date
+     * by these packets (e.g. the status of users for {@link EventFamily#PRESENCES}) is not populated, which saves
+     * a lot of cpu time and memory for bots which only need a few events.
+     * Channels, roles and server data are still populated when a server is created, but without
+     * {@link EventFamily#CHANNELS}, {@link EventFamily#ROLES} and {@link EventFamily#SERVER_UPDATES} they are never
+     * updated and become stale (e.g. deleted channels are still returned by {@link #getChannelById(String)}).
+     * Listeners for events of other families are never called!
+     * This must be set before connecting!
+     * By default the bot is subscribed to every event family.
+     *
+     * @param families The event families the bot should be subscribed to.
+     */
+    public void setSubscribedEventFamilies(EventFamily... families);
+
+    /**
+     * Checks whether the bot is subscribed to the given event family or not.
+     *
+     * @param family The event family to check.
+     * @return Whether the bot is subscribed to the given event family or not.
+     */
+    public boolean isSubscribed(EventFamily family);
+
+    /**
+     * Sets whether the bot should use zlib-stream compression for the websocket connection or not.
+     * With zlib-stream compression the whole connection shares a single compression context, which
+     * results in a much better compression ratio and less work for every received packet.
+     * This must be set before connecting!
+     * Zlib-stream compression is disabled by default.
+     *
+     * @param enabled Whether the bot should use zlib-stream compression or not.
+     */
+    public void setZlibStreamCompression(boolean enabled);
+
+    /**
+     * Checks whether zlib-stream compression is enabled or not.
+     *
+     * @return Whether zlib-stream compression is enabled or not.
+     */
+    public boolean isUsingZlibStreamCompression();
+
+    /**
+     * Sets whether the bot should use the Erlang External Term Format (ETF) instead of json for the websocket
+     * connection or not. ETF packets are smaller and faster to decode, especially for big servers.
+     * This must be set before connecting!
+     * ETF encoding is disabled by default.
+     *
+     * @param enabled Whether the bot should use etf encoding or not.
+     */
+    public void setEtfEncoding(boolean enabled);
+
+    /**
+     * Checks whether etf encoding is enabled or not.
+     *
+     * @return Whether etf encoding is enabled or not.
+     */
+    public boolean isUsingEtfEncoding();
+
 }
@@ -19,10 +19,10 @@
 package de.btobastian.javacord;
 
 import com.google.common.io.BaseEncoding;
-import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.SettableFuture;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.JsonNode;
@@ -44,11 +44,31 @@ import de.btobastian.javacord.exceptions.NotSupportedForBotsException;
 import de.btobastian.javacord.exceptions.PermissionsException;
 import de.btobastian.javacord.exceptions.RateLimitedException;
 import de.btobastian.javacord.listener.Listener;
+import de.btobastian.javacord.listener.message.MessageCreateBatchListener;
+import de.btobastian.javacord.listener.message.MessageDeleteBatchListener;
+import de.btobastian.javacord.listener.message.MessageEditBatchListener;
+import de.btobastian.javacord.listener.publisher.BufferOverflowStrategy;
+import de.btobastian.javacord.listener.publisher.MessageEditEvent;
+import de.btobastian.javacord.listener.publisher.Publisher;
+import de.btobastian.javacord.listener.publisher.impl.ImplMessageEditEvent;
+import de.btobastian.javacord.listener.publisher.impl.ImplPublisher;
 import de.btobastian.javacord.listener.server.ServerJoinListener;
 import de.btobastian.javacord.listener.user.UserChangeNameListener;
 import de.btobastian.javacord.utils.DiscordWebsocketAdapter;
+import de.btobastian.javacord.utils.EventFamily;
+import de.btobastian.javacord.utils.ListenerExecutorService;
+import de.btobastian.javacord.utils.ListenerRegistry;
 import de.btobastian.javacord.utils.LoggerUtil;
+import de.btobastian.javacord.utils.MessageCache;
+import de.btobastian.javacord.utils.MessageCacheAdmission;
+import de.btobastian.javacord.utils.MessageHistoryIndex;
+import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.ShardManager;
+import de.btobastian.javacord.utils.SnowflakeMap;
 import de.btobastian.javacord.utils.ThreadPool;
+import de.btobastian.javacord.utils.handler.message.MessageCreateBatcher;
+import de.btobastian.javacord.utils.handler.message.MessageDeleteBatcher;
+import de.btobastian.javacord.utils.handler.message.MessageEditBatcher;
 import de.btobastian.javacord.utils.ratelimits.RateLimitManager;
 import de.btobastian.javacord.utils.ratelimits.RateLimitType;
 import org.json.JSONArray;
@@ -64,6 +84,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The implementation of {@link DiscordAPI}.
@@ -76,6 +97,7 @@ public class ImplDiscordAPI implements DiscordAPI {
     private static final Logger logger = LoggerUtil.getLogger(ImplDiscordAPI.class);
 
     private final ThreadPool pool;
+    private final ListenerExecutorService listenerExecutorService;
 
     private String email = null;
     private String password = null;
@@ -87,27 +109,54 @@ public class ImplDiscordAPI implements DiscordAPI {
     private boolean autoReconnect = true;
 
     private boolean waitForServersOnStartup = true;
+    private int startupTimeout = 120;
     private boolean lazyLoading = false;
+    private boolean zlibStreamCompression = false;
+    private boolean etfEncoding = false;
+    private volatile Set<EventFamily> subscribedEventFamilies = EnumSet.allOf(EventFamily.class);
 
     private User you = null;
 
-    private volatile int messageCacheSize = 200;
-
-    private DiscordWebsocketAdapter socketAdapter = null;
+    private int totalShards = 1;
+    private int packetHandlerLanes = 1;
+    private volatile int listenerLanes = 1;
+    private volatile int listenerBatchSize = 100;
+    private volatile int listenerBatchWindow = 100;
+    private volatile int presenceCoalescingWindow = 0;
+
+    // the batchers are shared by all shards, so a batch listener only receives one stream of batches
+    private final MessageCreateBatcher messageCreateBatcher = new MessageCreateBatcher(this);
+    private final MessageEditBatcher messageEditBatcher = new MessageEditBatcher(this);
+    private final MessageDeleteBatcher messageDeleteBatcher = new MessageDeleteBatcher(this);
+
+    // the publishers are fed by the message handlers directly, not by (user visible) listeners
+    private final ImplPublisher<Message> messageCreatePublisher;
+    private final ImplPublisher<MessageEditEvent> messageEditPublisher;
+    private final ImplPublisher<Message> messageDeletePublisher;
+    private int frameBufferSize = 0;
+    private ShardManager shardManager = null;
 
     private RateLimitManager rateLimitManager = new RateLimitManager();
 
-    private final ConcurrentHashMap<String, Server> servers = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, User> users = new ConcurrentHashMap<>();
-
-    private final ArrayList<Message> messages = new ArrayList<>();
-
-    private final ConcurrentHashMap<Class<?>, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final SnowflakeMap<Server> servers = new SnowflakeMap<>();
+    private final SnowflakeMap<User> users = new SnowflakeMap<>();
+    // the channels of all servers and the users of all private channels, indexed by the channel id
+    private final ConcurrentHashMap<String, Channel> channelsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VoiceChannel> voiceChannelsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, User> usersByChannelId = new ConcurrentHashMap<>();
+    // servers which are currently created by the server loader
+    private final ConcurrentHashMap<String, Future<Server>> loadingServers = new ConcurrentHashMap<>();
+    // key = channel id; value = the id of the server of the channel, if the channel isn't cached yet because the
+    // server is currently created or the packet which creates the channel wasn't handled yet
+    private final ConcurrentHashMap<String, String> loadingServerIdsByChannelId = new ConcurrentHashMap<>();
+
+    private final MessageCache messages = new MessageCache(200);
+
+    private final ListenerRegistry listeners = new ListenerRegistry();
     private final ConcurrentHashMap<String, SettableFuture<Server>> waitingForListener = new ConcurrentHashMap<>();
 
     // let the garbage collector delete old histories
-    private final Set<MessageHistory> messageHistories =
-            Collections.newSetFromMap(new WeakHashMap<MessageHistory, Boolean>());
+    private final MessageHistoryIndex messageHistories = new MessageHistoryIndex();
 
     private final Object listenerLock = new Object();
     private final ServerJoinListener listener = new ServerJoinListener() {
@@ -125,7 +174,8 @@ public class ImplDiscordAPI implements DiscordAPI {
     };
 
     // a set with all unavailable servers
-    private final Set<String> unavailableServers = new HashSet<>();
+    private final Set<String> unavailableServers =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     /**
      * Creates a new instance of this class.
@@ -134,6 +184,10 @@ public class ImplDiscordAPI implements DiscordAPI {
      */
     public ImplDiscordAPI(ThreadPool pool) {
         this.pool = pool;
+        this.listenerExecutorService = new ListenerExecutorService(this, null);
+        this.messageCreatePublisher = createPublisher();
+        this.messageEditPublisher = createPublisher();
+        this.messageDeletePublisher = createPublisher();
     }
 
     @Override
@@ -157,15 +211,8 @@ public class ImplDiscordAPI implements DiscordAPI {
             token = requestTokenBlocking();
         }
         String gateway = requestGatewayBlocking();
-        socketAdapter = new DiscordWebsocketAdapter(this, gateway);
-        try {
-            if (!socketAdapter.isReady().get()) {
-                throw new IllegalStateException("Socket closed before ready packet was received!");
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.warn("Something went wrong while connecting. Please contact the developer!", e);
-            throw new IllegalStateException("Could not figure out if ready or not. Please contact the developer!");
-        }
+        shardManager = new ShardManager(this, gateway, totalShards);
+        shardManager.connectBlocking();
     }
 
     @Override
@@ -187,12 +234,8 @@ public class ImplDiscordAPI implements DiscordAPI {
     public void setGame(String game, String streamingUrl) {
         this.game = game;
         this.streamingUrl = streamingUrl;
-        try {
-            if (socketAdapter != null && socketAdapter.isReady().isDone() && socketAdapter.isReady().get()) {
-                socketAdapter.updateStatus();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            e.printStackTrace();
+        if (shardManager != null) {
+            shardManager.updateStatus();
         }
     }
 
@@ -208,7 +251,14 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public Server getServerById(String id) {
-        return servers.get(id);
+        Server server = servers.get(id);
+        if (server == null) {
+            Future<Server> loadingServer = loadingServers.get(id);
+            if (loadingServer != null) {
+                server = waitForLoadingServer(loadingServer);
+            }
+        }
+        return server;
     }
 
     @Override
@@ -227,14 +277,27 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public Channel getChannelById(String id) {
-        Iterator<Server> serverIterator = getServers().iterator();
-        while (serverIterator.hasNext()) {
-            Channel channel = serverIterator.next().getChannelById(id);
-            if (channel != null) {
-                return channel;
-            }
+        Channel cachedChannel = getCachedChannelById(id);
+        if (cachedChannel != null || !waitForLoadingServerOfChannel(id)) {
+            return cachedChannel;
         }
-        return null;
+        return getCachedChannelById(id);
+    }
+
+    /**
+     * Gets a channel by its id without waiting for servers which are currently loaded.
+     *
+     * @param id The id of the channel.
+     * @return The channel with the given id or <code>null</code>.
+     */
+    public Channel getCachedChannelById(String id) {
+        Channel channel = channelsById.get(id);
+        if (channel == null) {
+            return null;
+        }
+        // the server of the channel may not be added yet (or already removed)
+        ImplServer server = (ImplServer) channel.getServer();
+        return servers.get(server.getIdAsLong()) == server ? channel : null;
     }
 
     @Override
@@ -248,14 +311,27 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public VoiceChannel getVoiceChannelById(String id) {
-        Iterator<Server> serverIterator = getServers().iterator();
-        while (serverIterator.hasNext()) {
-            VoiceChannel channel = serverIterator.next().getVoiceChannelById(id);
-            if (channel != null) {
-                return channel;
-            }
+        VoiceChannel cachedChannel = getCachedVoiceChannelById(id);
+        if (cachedChannel != null || !waitForLoadingServerOfChannel(id)) {
+            return cachedChannel;
         }
-        return null;
+        return getCachedVoiceChannelById(id);
+    }
+
+    /**
+     * Gets a voice channel by its id without waiting for servers which are currently loaded.
+     *
+     * @param id The id of the voice channel.
+     * @return The voice channel with the given id or <code>null</code>.
+     */
+    public VoiceChannel getCachedVoiceChannelById(String id) {
+        VoiceChannel channel = voiceChannelsById.get(id);
+        if (channel == null) {
+            return null;
+        }
+        // the server of the channel may not be added yet (or already removed)
+        ImplServer server = (ImplServer) channel.getServer();
+        return servers.get(server.getIdAsLong()) == server ? channel : null;
     }
 
     @Override
@@ -314,35 +390,36 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public void registerListener(Listener listener) {
-        for (Class<?> implementedInterface : TypeToken.of(listener.getClass()).getTypes().interfaces().rawTypes()) {
-            if (Listener.class.isAssignableFrom(implementedInterface)) {
-                List<Listener> listenersList = listeners.get(implementedInterface);
-                if (listenersList == null) {
-                    listenersList = new ArrayList<>();
-                    listeners.put(implementedInterface, listenersList);
-                }
-                synchronized (listenersList) {
-                    listenersList.add(listener);
-                }
-            }
-        }
+        listeners.register(listener);
+    }
+
+    @Override
+    public void registerServerListener(String serverId, Listener listener) {
+        listeners.registerForServer(serverId, listener);
+    }
+
+    @Override
+    public void registerChannelListener(String channelId, Listener listener) {
+        listeners.registerForChannel(channelId, listener);
+    }
+
+    @Override
+    public void registerUserListener(String userId, Listener listener) {
+        listeners.registerForUser(userId, listener);
+    }
+
+    @Override
+    public boolean unregisterListener(Listener listener) {
+        return listeners.unregister(listener);
     }
 
     @Override
     public Message getMessageById(String id) {
-        synchronized (messages) {
-            for (Message message : messages) {
-                if (message.getId().equals(id)) {
-                    return message;
-                }
-            }
+        Message message = messages.get(id);
+        if (message != null) {
+            return message;
         }
-        synchronized (messageHistories) {
-            for (MessageHistory history : messageHistories) {
-                history.getMessageById(id);
-            }
-        }
-        return null;
+        return messageHistories.getMessageById(id);
     }
 
     @Override
@@ -350,15 +427,20 @@ public class ImplDiscordAPI implements DiscordAPI {
         return pool;
     }
 
+    /**
+     * Gets the executor service which calls the listeners.
+     *
+     * @return The executor service which calls the listeners.
+     */
+    public ListenerExecutorService getListenerExecutorService() {
+        return listenerExecutorService;
+    }
+
     @Override
     public void setIdle(boolean idle) {
         this.idle = idle;
-        try {
-            if (socketAdapter != null && socketAdapter.isReady().isDone() && socketAdapter.isReady().get()) {
-                socketAdapter.updateStatus();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            e.printStackTrace();
+        if (shardManager != null) {
+            shardManager.updateStatus();
         }
     }
 
@@ -589,14 +671,12 @@ public class ImplDiscordAPI implements DiscordAPI {
                 }
 
                 if (!getYourself().getName().equals(oldName)) {
-                    getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserChangeNameListener> listeners = getListeners(UserChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeNameListener listener : listeners) {
-                                    listener.onUserChangeName(ImplDiscordAPI.this, getYourself(), oldName);
-                                }
+                            UserChangeNameListener[] listeners = getListenerArray(UserChangeNameListener.class);
+                            for (UserChangeNameListener listener : listeners) {
+                                listener.onUserChangeName(ImplDiscordAPI.this, getYourself(), oldName);
                             }
                         }
                     });
@@ -652,17 +732,52 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     @Override
     public void setMessageCacheSize(int size) {
-        this.messageCacheSize = size < 0 ? 0 : size;
-        synchronized (messages) {
-            while (messages.size() > messageCacheSize) {
-                messages.remove(0);
-            }
-        }
+        messages.setCapacity(size);
     }
 
     @Override
     public int getMessageCacheSize() {
-        return messageCacheSize;
+        return messages.getCapacity();
+    }
+
+    @Override
+    public void setMessageCacheSizePerChannel(int size) {
+        messages.setCapacityPerChannel(size);
+    }
+
+    @Override
+    public int getMessageCacheSizePerChannel() {
+        return messages.getCapacityPerChannel();
+    }
+
+    @Override
+    public void setMessageCacheMaxAge(int seconds) {
+        messages.setMaxAge(seconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public int getMessageCacheMaxAge() {
+        return (int) messages.getMaxAge(TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void setMessageCacheMemoryBudget(long bytes) {
+        messages.setMemoryBudget(bytes);
+    }
+
+    @Override
+    public long getMessageCacheMemoryBudget() {
+        return messages.getMemoryBudget();
+    }
+
+    @Override
+    public void setMessageCacheAdmission(MessageCacheAdmission admission) {
+        messages.setAdmission(admission);
+    }
+
+    @Override
+    public MessageCacheAdmission getMessageCacheAdmission() {
+        return messages.getAdmission();
     }
 
     @Override
@@ -700,17 +815,34 @@ public class ImplDiscordAPI implements DiscordAPI {
         return waitForServersOnStartup;
     }
 
+    @Override
+    public void setStartupTimeout(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException("The startup timeout must not be negative!");
+        }
+        this.startupTimeout = seconds;
+    }
+
+    @Override
+    public int getStartupTimeout() {
+        return startupTimeout;
+    }
+
     @Override
     public void disconnect() {
-        if (socketAdapter != null) {
-            socketAdapter.disconnect();
+        if (shardManager != null) {
+            shardManager.disconnect();
         }
+        flushEventBatchers();
+        // subscribers would wait forever otherwise
+        messageCreatePublisher.complete();
+        messageEditPublisher.complete();
+        messageDeletePublisher.complete();
     }
 
     @Override
     public void setReconnectRatelimit(int attempts, int seconds) {
-        socketAdapter.setReconnectAttempts(attempts);
-        socketAdapter.setRatelimitResetIntervalInSeconds(seconds);
+        shardManager.setReconnectRatelimit(attempts, seconds);
     }
 
     @Override
@@ -723,6 +855,266 @@ public class ImplDiscordAPI implements DiscordAPI {
         return lazyLoading;
     }
 
+    @Override
+    public void setTotalShards(int totalShards) {
+        if (totalShards < 1) {
+            throw new IllegalArgumentException("The total amount of shards must be at least 1!");
+        }
+        this.totalShards = totalShards;
+    }
+
+    @Override
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    @Override
+    public void setPacketHandlerLanes(int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("The amount of packet handler lanes must be at least 1!");
+        }
+        this.packetHandlerLanes = lanes;
+    }
+
+    @Override
+    public int getPacketHandlerLanes() {
+        return packetHandlerLanes;
+    }
+
+    @Override
+    public int getPacketHandlerQueueSize(int lane) {
+        if (lane < 0 || lane >= packetHandlerLanes) {
+            throw new IllegalArgumentException("Lane " + lane + " does not exist!");
+        }
+        return pool.getQueueSize(PacketHandler.getLaneId(lane));
+    }
+
+    @Override
+    public void setListenerLanes(int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("The amount of listener lanes must be at least 1!");
+        }
+        this.listenerLanes = lanes;
+    }
+
+    @Override
+    public int getListenerLanes() {
+        return listenerLanes;
+    }
+
+    @Override
+    public int getListenerQueueSize(int lane) {
+        if (lane < 0 || lane >= listenerLanes) {
+            throw new IllegalArgumentException("Lane " + lane + " does not exist!");
+        }
+        return pool.getQueueSize(ListenerExecutorService.getLaneId(lane));
+    }
+
+    @Override
+    public void setListenerBatchSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1!");
+        }
+        this.listenerBatchSize = size;
+    }
+
+    @Override
+    public int getListenerBatchSize() {
+        return listenerBatchSize;
+    }
+
+    @Override
+    public void setListenerBatchWindow(int milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException("The batch window must not be negative!");
+        }
+        this.listenerBatchWindow = milliseconds;
+    }
+
+    @Override
+    public int getListenerBatchWindow() {
+        return listenerBatchWindow;
+    }
+
+    @Override
+    public void setPresenceCoalescingWindow(int milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException("The coalescing window must not be negative!");
+        }
+        this.presenceCoalescingWindow = milliseconds;
+    }
+
+    @Override
+    public int getPresenceCoalescingWindow() {
+        return presenceCoalescingWindow;
+    }
+
+    @Override
+    public Publisher<Message> getMessageCreatePublisher() {
+        return messageCreatePublisher;
+    }
+
+    @Override
+    public Publisher<MessageEditEvent> getMessageEditPublisher() {
+        return messageEditPublisher;
+    }
+
+    @Override
+    public Publisher<Message> getMessageDeletePublisher() {
+        return messageDeletePublisher;
+    }
+
+    /**
+     * Gets the batcher of the created messages for the {@link MessageCreateBatchListener}s.
+     *
+     * @return The batcher of the created messages.
+     */
+    public MessageCreateBatcher getMessageCreateBatcher() {
+        return messageCreateBatcher;
+    }
+
+    /**
+     * Gets the batcher of the edited messages for the {@link MessageEditBatchListener}s.
+     *
+     * @return The batcher of the edited messages.
+     */
+    public MessageEditBatcher getMessageEditBatcher() {
+        return messageEditBatcher;
+    }
+
+    /**
+     * Gets the batcher of the deleted messages for the {@link MessageDeleteBatchListener}s.
+     *
+     * @return The batcher of the deleted messages.
+     */
+    public MessageDeleteBatcher getMessageDeleteBatcher() {
+        return messageDeleteBatcher;
+    }
+
+    /**
+     * Passes the pending batches of all batchers to the batch listeners.
+     * This is called if a shard disconnects, so no events wait for the end of a batch window which may never come.
+     */
+    public void flushEventBatchers() {
+        messageCreateBatcher.flush();
+        messageEditBatcher.flush();
+        messageDeleteBatcher.flush();
+    }
+
+    /**
+     * Publishes a created message to the subscribers of {@link #getMessageCreatePublisher()}.
+     *
+     * @param message The created message.
+     */
+    public void publishMessageCreate(Message message) {
+        if (messageCreatePublisher.hasSubscribers()) {
+            messageCreatePublisher.publish(message);
+        }
+    }
+
+    /**
+     * Publishes an edited message to the subscribers of {@link #getMessageEditPublisher()}.
+     *
+     * @param message The edited message.
+     * @param oldContent The content of the message before it was edited.
+     */
+    public void publishMessageEdit(Message message, String oldContent) {
+        if (messageEditPublisher.hasSubscribers()) {
+            messageEditPublisher.publish(new ImplMessageEditEvent(message, oldContent));
+        }
+    }
+
+    /**
+     * Publishes a deleted message to the subscribers of {@link #getMessageDeletePublisher()}.
+     *
+     * @param message The deleted message.
+     */
+    public void publishMessageDelete(Message message) {
+        if (messageDeletePublisher.hasSubscribers()) {
+            messageDeletePublisher.publish(message);
+        }
+    }
+
+    /**
+     * Creates a new publisher with the default buffer.
+     *
+     * @param <T> The type of the events.
+     * @return The new publisher.
+     */
+    private <T> ImplPublisher<T> createPublisher() {
+        return new ImplPublisher<>(pool.getExecutorService(), 256, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    @Override
+    public void setFrameBufferSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The frame buffer size must not be negative!");
+        }
+        this.frameBufferSize = size;
+    }
+
+    @Override
+    public int getFrameBufferSize() {
+        return frameBufferSize;
+    }
+
+    @Override
+    public ShardManager getShardManager() {
+        return shardManager;
+    }
+
+    @Override
+    public long getGatewayPing() {
+        return shardManager == null ? -1 : shardManager.getLatency();
+    }
+
+    @Override
+    public long getAverageGatewayPing() {
+        return shardManager == null ? -1 : shardManager.getAverageLatency();
+    }
+
+    @Override
+    public long getGatewayCompressedBytes() {
+        return shardManager == null ? 0 : shardManager.getCompressedBytes();
+    }
+
+    @Override
+    public long getGatewayDecompressedBytes() {
+        return shardManager == null ? 0 : shardManager.getDecompressedBytes();
+    }
+
+    @Override
+    public void setSubscribedEventFamilies(EventFamily... families) {
+        Set<EventFamily> subscribed = EnumSet.noneOf(EventFamily.class);
+        Collections.addAll(subscribed, families);
+        this.subscribedEventFamilies = subscribed;
+    }
+
+    @Override
+    public boolean isSubscribed(EventFamily family) {
+        return subscribedEventFamilies.contains(family);
+    }
+
+    @Override
+    public void setZlibStreamCompression(boolean enabled) {
+        this.zlibStreamCompression = enabled;
+    }
+
+    @Override
+    public boolean isUsingZlibStreamCompression() {
+        return zlibStreamCompression;
+    }
+
+    @Override
+    public void setEtfEncoding(boolean enabled) {
+        this.etfEncoding = enabled;
+    }
+
+    @Override
+    public boolean isUsingEtfEncoding() {
+        return etfEncoding;
+    }
+
     /**
      * Gets a list with all unavailable servers.
      *
@@ -754,36 +1146,230 @@ public class ImplDiscordAPI implements DiscordAPI {
             if (!data.has("username")) {
                 return null;
             }
-            user = new ImplUser(data, this);
+            new ImplUser(data, this);
+            // servers are loaded in parallel, so another thread may have created the user first
+            user = users.get(id);
         }
         return user;
     }
 
+    /**
+     * Creates the server of the given <code>GUILD_CREATE</code> packet in the server loader thread pool.
+     * Until the server is created, {@link #getServerById(String)} and the channel getters wait for it, so packets
+     * which are received after the <code>GUILD_CREATE</code> packet always see the server. The channel getters only
+     * wait for the server which contains the channel.
+     *
+     * @param data The <code>GUILD_CREATE</code> packet.
+     * @return The created server.
+     */
+    public ListenableFuture<Server> loadServer(final JSONObject data) {
+        final String id = data.getString("id");
+        final ImplDiscordAPI api = this;
+        final List<String> channelIds = new ArrayList<>();
+        if (data.has("channels")) {
+            JSONArray channels = data.getJSONArray("channels");
+            for (int i = 0; i < channels.length(); i++) {
+                channelIds.add(channels.getJSONObject(i).getString("id"));
+            }
+        }
+        ListenableFutureTask<Server> task = ListenableFutureTask.create(new Callable<Server>() {
+            @Override
+            public Server call() throws Exception {
+                try {
+                    return new ImplServer(data, api);
+                } finally {
+                    loadingServers.remove(id);
+                    for (String channelId : channelIds) {
+                        loadingServerIdsByChannelId.remove(channelId, id);
+                    }
+                }
+            }
+        });
+        loadingServers.put(id, task);
+        for (String channelId : channelIds) {
+            loadingServerIdsByChannelId.put(channelId, id);
+        }
+        pool.getServerLoaderExecutorService().execute(task);
+        return task;
+    }
+
+    /**
+     * Gets the id of the server which contains the given channel, if the channel is not cached yet.
+     * This is the case if the server is currently created by the server loader or the packet which creates the
+     * channel was received, but not handled yet. This method never waits.
+     *
+     * @param channelId The id of the channel.
+     * @return The id of the server. <code>Null</code> if the channel isn't known or already cached.
+     */
+    public String getLoadingServerIdOfChannel(String channelId) {
+        return loadingServerIdsByChannelId.get(channelId);
+    }
+
+    /**
+     * Remembers the server of a channel which was received, but isn't cached yet.
+     * Must be called by the websocket thread when the packet is received, so packets of the channel which are
+     * received later are handled by the lane of the server and not before the channel is created.
+     *
+     * @param channelId The id of the channel.
+     * @param serverId The id of the server.
+     */
+    public void addPendingChannel(String channelId, String serverId) {
+        loadingServerIdsByChannelId.put(channelId, serverId);
+    }
+
+    /**
+     * Forgets the server of a channel which was added by {@link #addPendingChannel(String, String)}.
+     * Must be called after the packet which creates the channel was handled.
+     *
+     * @param channelId The id of the channel.
+     * @param serverId The id of the server.
+     */
+    public void removePendingChannel(String channelId, String serverId) {
+        loadingServerIdsByChannelId.remove(channelId, serverId);
+    }
+
+    /**
+     * Waits until the server which contains the given channel is created, if it's currently loaded.
+     * Other servers which are loaded at the same time are not waited for.
+     *
+     * @param channelId The id of the channel.
+     * @return Whether a server was waited for or not.
+     */
+    private boolean waitForLoadingServerOfChannel(String channelId) {
+        String serverId = loadingServerIdsByChannelId.get(channelId);
+        Future<Server> loadingServer = serverId == null ? null : loadingServers.get(serverId);
+        if (loadingServer == null) {
+            return false;
+        }
+        waitForLoadingServer(loadingServer);
+        return true;
+    }
+
+    /**
+     * Waits until the given server is created.
+     *
+     * @param loadingServer The future of the server.
+     * @return The created server or <code>null</code> if it could not be created.
+     */
+    private Server waitForLoadingServer(Future<Server> loadingServer) {
+        try {
+            return loadingServer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null; // logged by the one who loads the server
+        }
+    }
+
     /**
      * Gets the map which contains all known servers.
      *
      * @return The map which contains all known servers.
      */
-    public ConcurrentHashMap<String, Server> getServerMap() {
+    public SnowflakeMap<Server> getServerMap() {
         return servers;
     }
 
+    /**
+     * Removes a server and all its channels from the cache.
+     *
+     * @param server The server to remove.
+     */
+    public void removeServer(Server server) {
+        servers.remove(((ImplServer) server).getIdAsLong(), server);
+        if (shardManager != null) {
+            shardManager.getShardForServer(server.getId()).getMemberRequestScheduler().onServerRemove(server);
+        }
+        for (Channel channel : server.getChannels()) {
+            channelsById.remove(channel.getId(), channel);
+        }
+        for (VoiceChannel channel : server.getVoiceChannels()) {
+            voiceChannelsById.remove(channel.getId(), channel);
+        }
+    }
+
+    /**
+     * Adds a channel to the channel index.
+     * This is called by the server when the channel is added to it.
+     *
+     * @param channel The channel to add.
+     */
+    public void addChannelToIndex(Channel channel) {
+        channelsById.put(channel.getId(), channel);
+    }
+
+    /**
+     * Removes a channel from the channel index.
+     *
+     * @param channel The channel to remove.
+     */
+    public void removeChannelFromIndex(Channel channel) {
+        channelsById.remove(channel.getId(), channel);
+    }
+
+    /**
+     * Adds a voice channel to the voice channel index.
+     * This is called by the server when the voice channel is added to it.
+     *
+     * @param channel The voice channel to add.
+     */
+    public void addVoiceChannelToIndex(VoiceChannel channel) {
+        voiceChannelsById.put(channel.getId(), channel);
+    }
+
+    /**
+     * Removes a voice channel from the voice channel index.
+     *
+     * @param channel The voice channel to remove.
+     */
+    public void removeVoiceChannelFromIndex(VoiceChannel channel) {
+        voiceChannelsById.remove(channel.getId(), channel);
+    }
+
+    /**
+     * Updates the private channel index. This is called when the private channel id of a user changes.
+     *
+     * @param user The user.
+     * @param oldChannelId The old private channel id of the user. Can be <code>null</code>.
+     * @param newChannelId The new private channel id of the user. Can be <code>null</code>.
+     */
+    public void updateUserChannelIndex(User user, String oldChannelId, String newChannelId) {
+        if (oldChannelId != null) {
+            usersByChannelId.remove(oldChannelId, user);
+        }
+        if (newChannelId != null) {
+            usersByChannelId.put(newChannelId, user);
+        }
+    }
+
+    /**
+     * Gets the user of a private channel.
+     *
+     * @param channelId The id of the private channel.
+     * @return The user of the private channel. <code>Null</code> if the channel is unknown.
+     */
+    public User getUserByChannelId(String channelId) {
+        return usersByChannelId.get(channelId);
+    }
+
     /**
      * Gets the map which contains all known users.
      *
      * @return The map which contains all known users.
      */
-    public ConcurrentHashMap<String, User> getUserMap() {
+    public SnowflakeMap<User> getUserMap() {
         return users;
     }
 
     /**
-     * Gets the used socket adapter.
+     * Gets the socket adapter of the first shard.
      *
      * @return The socket adapter.
+     * @see ShardManager#getShardForServer(String)
      */
     public DiscordWebsocketAdapter getSocketAdapter() {
-        return socketAdapter;
+        return shardManager == null ? null : shardManager.getShard(0);
     }
 
     /**
@@ -850,14 +1436,74 @@ public class ImplDiscordAPI implements DiscordAPI {
 
     /**
      * Gets a list with all registers listeners of the given class.
+     * The list is an unmodifiable snapshot. Use {@link #getListenerArray(Class)} to avoid the wrapper.
      *
      * @param <T> The type of the listener.
      * @param listenerClass The type of the listener.
      * @return A list with all registers listeners of the given type.
      */
     public <T extends Listener> List<T> getListeners(Class<T> listenerClass) {
-        List<T> listenersList = (List<T>) listeners.get(listenerClass);
-        return listenersList == null ? new ArrayList<T>() : listenersList;
+        return Collections.unmodifiableList(Arrays.asList(listeners.get(listenerClass)));
+    }
+
+    /**
+     * Gets an array with all registers listeners of the given class.
+     * The array must not be modified. It's replaced (not changed) if a listener is registered or unregistered, so
+     * it can be iterated without synchronization.
+     *
+     * @param <T> The type of the listener.
+     * @param listenerClass The type of the listener.
+     * @return An array with all registers listeners of the given type.
+     */
+    public <T extends Listener> T[] getListenerArray(Class<T> listenerClass) {
+        return listeners.get(listenerClass);
+    }
+
+    /**
+     * Checks if there may be listeners of the given class.
+     * This includes listeners which are only registered for a server, channel or user.
+     *
+     * @param listenerClass The type of the listener.
+     * @return Whether there may be listeners of the given type.
+     */
+    public boolean hasListeners(Class<? extends Listener> listenerClass) {
+        return listeners.hasListeners(listenerClass);
+    }
+
+    /**
+     * Gets an array with all listeners of the given class which want to receive an event of the given server, channel
+     * and user. This includes the listeners which are registered for all events.
+     * The array must not be modified.
+     *
+     * @param <T> The type of the listener.
+     * @param listenerClass The type of the listener.
+     * @param serverId The id of the server of the event. Can be <code>null</code>.
+     * @param channelId The id of the channel of the event. Can be <code>null</code>.
+     * @param userId The id of the user who caused the event. Can be <code>null</code>.
+     * @return An array with all matching listeners of the given type.
+     */
+    public <T extends Listener> T[] getListenerArray(
+            Class<T> listenerClass, String serverId, String channelId, String userId) {
+        return listeners.get(listenerClass, serverId, channelId, userId);
+    }
+
+    /**
+     * Gets an array with all listeners of the given class which want to receive an event of the given message.
+     * This includes the listeners which are registered for all events.
+     * The array must not be modified.
+     *
+     * @param <T> The type of the listener.
+     * @param listenerClass The type of the listener.
+     * @param message The message of the event.
+     * @param user The user who caused the event. Can be <code>null</code>.
+     * @return An array with all matching listeners of the given type.
+     */
+    public <T extends Listener> T[] getListenerArray(Class<T> listenerClass, Message message, User user) {
+        Channel channel = message.getChannelReceiver();
+        return listeners.get(listenerClass,
+                channel == null ? null : channel.getServer().getId(),
+                channel == null ? null : channel.getId(),
+                user == null ? null : user.getId());
     }
 
     /**
@@ -867,27 +1513,20 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @param <T> The type of the listener.
      * @return A list with all registers listeners of the given type.
      */
+    @SuppressWarnings("unchecked")
     public <T extends Listener> List<T> getListeners() {
-        for (List<Listener> list : listeners.values()) {
-            try {
-                return (List<T>) list;
-            } catch (ClassCastException ignored) {}
-        }
-        return new ArrayList<>();
+        return (List<T>) listeners.getAll();
     }
 
     /**
      * Adds a message to the message cache.
      *
      * @param message The message to add.
+     * @param channelId The id of the channel of the message.
+     * @param fromHistory Whether the message was requested as part of a message history or not.
      */
-    public void addMessage(Message message) {
-        synchronized (messages) {
-            if (messages.size() > messageCacheSize) { // only cache the last 200 messages
-                messages.remove(0);
-            }
-            messages.add(message);
-        }
+    public void addMessage(Message message, String channelId, boolean fromHistory) {
+        messages.add(message, channelId, fromHistory);
     }
 
     /**
@@ -896,14 +1535,8 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @param message The message to remove.
      */
     public void removeMessage(Message message) {
-        synchronized (messages) {
-            messages.remove(message);
-        }
-        synchronized (messageHistories) {
-            for (MessageHistory history : messageHistories) {
-                ((ImplMessageHistory) history).removeMessage(message.getId());
-            }
-        }
+        messages.remove(message);
+        messageHistories.removeMessage(message.getId());
     }
 
     /**
@@ -912,9 +1545,7 @@ public class ImplDiscordAPI implements DiscordAPI {
      * @param history The history to add.
      */
     public void addHistory(MessageHistory history) {
-        synchronized (messageHistories) {
-            messageHistories.add(history);
-        }
+        messageHistories.add((ImplMessageHistory) history);
     }
 
     /**
@@ -970,15 +1601,6 @@ public class ImplDiscordAPI implements DiscordAPI {
         }
     }
 
-    /**
-     * Gets a set with all message histories.
-     *
-     * @return A set with all message histories.
-     */
-    public Set<MessageHistory> getMessageHistories() {
-        return messageHistories;
-    }
-
     /**
      * Gets the internal used server join listener (for server creations and invite accepts).
      *
@@ -988,13 +1610,5 @@ public class ImplDiscordAPI implements DiscordAPI {
         return listener;
     }
 
-    /**
-     * Sets the socket adapter.
-     *
-     * @param socketAdapter The socket adapter to set.
-     */
-    public void setSocketAdapter(DiscordWebsocketAdapter socketAdapter) {
-        this.socketAdapter = socketAdapter;
-    }
 
 }
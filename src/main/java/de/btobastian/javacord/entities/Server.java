@@ -450,4 +450,23 @@ public interface Server {
      * @return A future containing the webp image data for the icon.
      */
     public Future<byte[]> getIcon(FutureCallback<byte[]> callback);
+
+    /**
+     * Requests all members of the server.
+     * The members of large servers are requested automatically on startup, unless lazy loading is enabled.
+     * If the members are already requested, no new request is sent.
+     *
+     * @return A future which is completed as soon as all members of the server were received.
+     */
+    public Future<Server> requestMembers();
+
+    /**
+     * Requests all members of the server.
+     * The members of large servers are requested automatically on startup, unless lazy loading is enabled.
+     * If the members are already requested, no new request is sent.
+     *
+     * @param callback A callback which will be informed as soon as all members of the server were received.
+     * @return A future which is completed as soon as all members of the server were received.
+     */
+    public Future<Server> requestMembers(FutureCallback<Server> callback);
 }
@@ -57,7 +57,6 @@ import org.slf4j.Logger;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Calendar;
-import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
@@ -171,14 +170,12 @@ public class ImplChannel implements Channel {
                 server.removeChannel(ImplChannel.this);
                 logger.info("Deleted channel {}", ImplChannel.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ChannelDeleteListener> listeners = api.getListeners(ChannelDeleteListener.class);
-                        synchronized (listeners) {
-                            for (ChannelDeleteListener listener : listeners) {
-                                listener.onChannelDelete(api, ImplChannel.this);
-                            }
+                        ChannelDeleteListener[] listeners = api.getListenerArray(ChannelDeleteListener.class);
+                        for (ChannelDeleteListener listener : listeners) {
+                            listener.onChannelDelete(api, ImplChannel.this);
                         }
                     }
                 });
@@ -598,18 +595,16 @@ public class ImplChannel implements Channel {
                 if (!updatedName.equals(getName())) {
                     final String oldName = getName();
                     setName(updatedName);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<ChannelChangeNameListener> listeners =
-                                    api.getListeners(ChannelChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (ChannelChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onChannelChangeName(api, ImplChannel.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
-                                    }
+                            ChannelChangeNameListener[] listeners =
+                                    api.getListenerArray(ChannelChangeNameListener.class);
+                            for (ChannelChangeNameListener listener : listeners) {
+                                try {
+                                    listener.onChannelChangeName(api, ImplChannel.this, oldName);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
                                 }
                             }
                         }
@@ -621,18 +616,16 @@ public class ImplChannel implements Channel {
                         || (getTopic() != null && !getTopic().equals(updatedTopic))) {
                     final String oldTopic = getTopic();
                     setTopic(updatedTopic);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<ChannelChangeTopicListener> listeners =
-                                    api.getListeners(ChannelChangeTopicListener.class);
-                            synchronized (listeners) {
-                                for (ChannelChangeTopicListener listener : listeners) {
-                                    try {
-                                        listener.onChannelChangeTopic(api, ImplChannel.this, oldTopic);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
-                                    }
+                            ChannelChangeTopicListener[] listeners =
+                                    api.getListenerArray(ChannelChangeTopicListener.class);
+                            for (ChannelChangeTopicListener listener : listeners) {
+                                try {
+                                    listener.onChannelChangeTopic(api, ImplChannel.this, oldTopic);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
                                 }
                             }
                         }
@@ -643,18 +636,16 @@ public class ImplChannel implements Channel {
                 if (updatedPosition != getPosition()) {
                     final int oldPosition = getPosition();
                     setPosition(updatedPosition);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<ChannelChangePositionListener> listeners =
-                                    api.getListeners(ChannelChangePositionListener.class);
-                            synchronized (listeners) {
-                                for (ChannelChangePositionListener listener : listeners) {
-                                    try {
-                                        listener.onChannelChangePosition(api, ImplChannel.this, oldPosition);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ChannelChangePositionListener!", t);
-                                    }
+                            ChannelChangePositionListener[] listeners =
+                                    api.getListenerArray(ChannelChangePositionListener.class);
+                            for (ChannelChangePositionListener listener : listeners) {
+                                try {
+                                    listener.onChannelChangePosition(api, ImplChannel.this, oldPosition);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in ChannelChangePositionListener!", t);
                                 }
                             }
                         }
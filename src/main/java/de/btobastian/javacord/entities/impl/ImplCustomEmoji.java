@@ -47,7 +47,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Calendar;
 import java.util.Collection;
-import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
@@ -222,14 +221,12 @@ public class ImplCustomEmoji implements CustomEmoji {
                 server.removeCustomEmoji(ImplCustomEmoji.this);
                 logger.info("Deleted emoji {}", ImplCustomEmoji.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<CustomEmojiDeleteListener> listeners = api.getListeners(CustomEmojiDeleteListener.class);
-                        synchronized (listeners) {
-                            for (CustomEmojiDeleteListener listener : listeners) {
-                                listener.onCustomEmojiDelete(api, ImplCustomEmoji.this);
-                            }
+                        CustomEmojiDeleteListener[] listeners = api.getListenerArray(CustomEmojiDeleteListener.class);
+                        for (CustomEmojiDeleteListener listener : listeners) {
+                            listener.onCustomEmojiDelete(api, ImplCustomEmoji.this);
                         }
                     }
                 });
@@ -25,15 +25,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 import de.btobastian.javacord.Javacord;
+import de.btobastian.javacord.utils.EventFamily;
+import de.btobastian.javacord.utils.SnowflakeMap;
 import de.btobastian.javacord.utils.SnowflakeUtil;
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -88,21 +91,26 @@ public class ImplServer implements Server {
      */
     private static final Logger logger = LoggerUtil.getLogger(ImplServer.class);
 
+    private static final long[] NO_ROLE_IDS = new long[0];
+
     private final ImplDiscordAPI api;
 
-    private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, VoiceChannel> voiceChannels = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, User> members = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Role> roles = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, CustomEmoji> customEmojis = new ConcurrentHashMap<>();
+    private final SnowflakeMap<Channel> channels = new SnowflakeMap<>();
+    private final SnowflakeMap<VoiceChannel> voiceChannels = new SnowflakeMap<>();
+    private final SnowflakeMap<User> members = new SnowflakeMap<>();
+    private final SnowflakeMap<Role> roles = new SnowflakeMap<>();
+    private final SnowflakeMap<CustomEmoji> customEmojis = new SnowflakeMap<>();
     // key = user id; value = user nickname
-    private final ConcurrentHashMap<String, String> nicknames = new ConcurrentHashMap<>();
+    private final SnowflakeMap<String> nicknames = new SnowflakeMap<>();
+    // key = user id; value = the ids of the roles of the user in ascending order (replaced, not changed)
+    private final SnowflakeMap<long[]> memberRoles = new SnowflakeMap<>();
 
-    private final String id;
+    private final long id;
     private String name;
     private Region region;
     private int memberCount;
     private final boolean large;
+    private boolean membersRequested = false;
     private String ownerId;
     private String iconHash;
 
@@ -116,7 +124,7 @@ public class ImplServer implements Server {
         this.api = api;
 
         name = data.getString("name");
-        id = data.getString("id");
+        id = Long.parseLong(data.getString("id"));
         region = Region.getRegionByKey(data.getString("region"));
         memberCount = data.getInt("member_count");
         large = data.getBoolean("large");
@@ -145,24 +153,20 @@ public class ImplServer implements Server {
         }
 
         JSONArray members = new JSONArray();
-        if (data.has("members")) {
+        if (data.has("members") && api.isSubscribed(EventFamily.MEMBERS)) {
             members = data.getJSONArray("members");
         }
         addMembers(members);
 
-        if (!api.isLazyLoading() && isLarge() && getMembers().size() < getMemberCount()) {
-            JSONObject requestGuildMembersPacket = new JSONObject()
-                    .put("op", 8)
-                    .put("d", new JSONObject()
-                            .put("guild_id", getId())
-                            .put("query","")
-                            .put("limit", 0));
-            logger.debug("Sending request guild members packet for server {}", this);
-            api.getSocketAdapter().getWebSocket().sendText(requestGuildMembersPacket.toString());
+        if (!api.isLazyLoading() && api.isSubscribed(EventFamily.MEMBERS)
+                && isLarge() && getMembers().size() < getMemberCount()) {
+            // the request is sent together with the requests of other servers
+            membersRequested = true;
+            requestMembers();
         }
 
         JSONArray voiceStates = new JSONArray();
-        if (data.has("voice_states")) {
+        if (data.has("voice_states") && api.isSubscribed(EventFamily.VOICE_STATES)) {
             voiceStates = data.getJSONArray("voice_states");
         }
         for (int i = 0; i < voiceStates.length(); ++i) {
@@ -186,7 +190,7 @@ public class ImplServer implements Server {
         }
 
         JSONArray presences = new JSONArray();
-        if (data.has("presences")) {
+        if (data.has("presences") && api.isSubscribed(EventFamily.PRESENCES)) {
             presences = data.getJSONArray("presences");
         }
         for (int i = 0; i < presences.length(); i++) {
@@ -210,6 +214,16 @@ public class ImplServer implements Server {
 
     @Override
     public String getId() {
+        return Long.toString(id);
+    }
+
+    /**
+     * Gets the id of the server as <code>long</code>.
+     * Unlike {@link #getId()} this method doesn't create a new string.
+     *
+     * @return The id of the server.
+     */
+    public long getIdAsLong() {
         return id;
     }
 
@@ -234,19 +248,17 @@ public class ImplServer implements Server {
                         .asJson();
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
-                api.getServerMap().remove(id);
+                api.removeServer(ImplServer.this);
                 logger.info("Deleted server {}", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                        synchronized (listeners) {
-                            for (ServerLeaveListener listener : listeners) {
-                                try {
-                                    listener.onServerLeave(api, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                                }
+                        ServerLeaveListener[] listeners = api.getListenerArray(ServerLeaveListener.class);
+                        for (ServerLeaveListener listener : listeners) {
+                            try {
+                                listener.onServerLeave(api, ImplServer.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ServerLeaveListener!", t);
                             }
                         }
                     }
@@ -268,19 +280,17 @@ public class ImplServer implements Server {
                         .asJson();
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
-                api.getServerMap().remove(id);
+                api.removeServer(ImplServer.this);
                 logger.info("Left server {}", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                        synchronized (listeners) {
-                            for (ServerLeaveListener listener : listeners) {
-                                try {
-                                    listener.onServerLeave(api, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                                }
+                        ServerLeaveListener[] listeners = api.getListenerArray(ServerLeaveListener.class);
+                        for (ServerLeaveListener listener : listeners) {
+                            try {
+                                listener.onServerLeave(api, ImplServer.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ServerLeaveListener!", t);
                             }
                         }
                     }
@@ -354,17 +364,15 @@ public class ImplServer implements Server {
                         final Channel channel = (Channel) createChannelBlocking(name, false);
                         logger.info("Created channel in server {} (name: {}, voice: {}, id: {})",
                                 ImplServer.this, channel.getName(), false, channel.getId());
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.getListenerExecutorService().submit(new Runnable() {
                             @Override
                             public void run() {
-                                List<ChannelCreateListener> listeners = api.getListeners(ChannelCreateListener.class);
-                                synchronized (listeners) {
-                                    for (ChannelCreateListener listener : listeners) {
-                                        try {
-                                            listener.onChannelCreate(api, channel);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in ChannelCreateListener!", t);
-                                        }
+                                ChannelCreateListener[] listeners = api.getListenerArray(ChannelCreateListener.class);
+                                for (ChannelCreateListener listener : listeners) {
+                                    try {
+                                        listener.onChannelCreate(api, channel);
+                                    } catch (Throwable t) {
+                                        logger.warn("Uncaught exception in ChannelCreateListener!", t);
                                     }
                                 }
                             }
@@ -392,18 +400,16 @@ public class ImplServer implements Server {
                         final VoiceChannel channel = (VoiceChannel) createChannelBlocking(name, true);
                         logger.info("Created channel in server {} (name: {}, voice: {}, id: {})",
                                 ImplServer.this, channel.getName(), true, channel.getId());
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                        api.getListenerExecutorService().submit(new Runnable() {
                             @Override
                             public void run() {
-                                List<VoiceChannelCreateListener> listeners =
-                                        api.getListeners(VoiceChannelCreateListener.class);
-                                synchronized (listeners) {
-                                    for (VoiceChannelCreateListener listener : listeners) {
-                                        try {
-                                        listener.onVoiceChannelCreate(api, channel);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
-                                        }
+                                VoiceChannelCreateListener[] listeners =
+                                        api.getListenerArray(VoiceChannelCreateListener.class);
+                                for (VoiceChannelCreateListener listener : listeners) {
+                                    try {
+                                    listener.onVoiceChannelCreate(api, channel);
+                                    } catch (Throwable t) {
+                                        logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
                                     }
                                 }
                             }
@@ -475,20 +481,16 @@ public class ImplServer implements Server {
                             break;
                         }
                     }
-                    if (!contains) {
-                        ((ImplRole) role).removeUserNoUpdate(user);
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    if (!contains && ((ImplRole) role).removeUserNoUpdate(user)) {
+                        api.getListenerExecutorService().submit(new Runnable() {
                             @Override
                             public void run() {
-                                List<UserRoleRemoveListener> listeners =
-                                        api.getListeners(UserRoleRemoveListener.class);
-                                synchronized (listeners) {
-                                    for (UserRoleRemoveListener listener : listeners) {
-                                        try {
-                                            listener.onUserRoleRemove(api, user, role);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in UserRoleRemoveListener!", t);
-                                        }
+                                UserRoleRemoveListener[] listeners = api.getListenerArray(UserRoleRemoveListener.class);
+                                for (UserRoleRemoveListener listener : listeners) {
+                                    try {
+                                        listener.onUserRoleRemove(api, user, role);
+                                    } catch (Throwable t) {
+                                        logger.warn("Uncaught exception in UserRoleRemoveListener!", t);
                                     }
                                 }
                             }
@@ -496,19 +498,16 @@ public class ImplServer implements Server {
                     }
                 }
                 for (final Role role : roles) {
-                    if (!user.getRoles(ImplServer.this).contains(role)) {
-                        ((ImplRole) role).addUserNoUpdate(user);
-                        api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    if (((ImplRole) role).addUserNoUpdate(user)) {
+                        api.getListenerExecutorService().submit(new Runnable() {
                             @Override
                             public void run() {
-                                List<UserRoleAddListener> listeners = api.getListeners(UserRoleAddListener.class);
-                                synchronized (listeners) {
-                                    for (UserRoleAddListener listener : listeners) {
-                                        try {
-                                            listener.onUserRoleAdd(api, user, role);
-                                        } catch (Throwable t) {
-                                            logger.warn("Uncaught exception in UserRoleAddListener!", t);
-                                        }
+                                UserRoleAddListener[] listeners = api.getListenerArray(UserRoleAddListener.class);
+                                for (UserRoleAddListener listener : listeners) {
+                                    try {
+                                        listener.onUserRoleAdd(api, user, role);
+                                    } catch (Throwable t) {
+                                        logger.warn("Uncaught exception in UserRoleAddListener!", t);
                                     }
                                 }
                             }
@@ -556,17 +555,15 @@ public class ImplServer implements Server {
                 }
                 logger.info("Banned an user from server {} (user id: {}, delete days: {})",
                         ImplServer.this, userId, deleteDays);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ServerMemberBanListener> listeners = api.getListeners(ServerMemberBanListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberBanListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberBan(api, user, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberBanListener!", t);
-                                }
+                        ServerMemberBanListener[] listeners = api.getListenerArray(ServerMemberBanListener.class);
+                        for (ServerMemberBanListener listener : listeners) {
+                            try {
+                                listener.onServerMemberBan(api, user, ImplServer.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ServerMemberBanListener!", t);
                             }
                         }
                     }
@@ -589,18 +586,15 @@ public class ImplServer implements Server {
                 api.checkResponse(response);
                 api.checkRateLimit(response, RateLimitType.UNKNOWN, ImplServer.this, null);
                 logger.info("Unbanned an user from server {} (user id: {})", ImplServer.this, userId);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ServerMemberUnbanListener> listeners =
-                                api.getListeners(ServerMemberUnbanListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberUnbanListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberUnban(api, userId, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
-                                }
+                        ServerMemberUnbanListener[] listeners = api.getListenerArray(ServerMemberUnbanListener.class);
+                        for (ServerMemberUnbanListener listener : listeners) {
+                            try {
+                                listener.onServerMemberUnban(api, userId, ImplServer.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
                             }
                         }
                     }
@@ -665,18 +659,15 @@ public class ImplServer implements Server {
                     removeMember(user);
                 }
                 logger.info("Kicked an user from server {} (user id: {})", ImplServer.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ServerMemberRemoveListener> listeners =
-                                api.getListeners(ServerMemberRemoveListener.class);
-                        synchronized (listeners) {
-                            for (ServerMemberRemoveListener listener : listeners) {
-                                try {
-                                    listener.onServerMemberRemove(api, user, ImplServer.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
-                                }
+                        ServerMemberRemoveListener[] listeners = api.getListenerArray(ServerMemberRemoveListener.class);
+                        for (ServerMemberRemoveListener listener : listeners) {
+                            try {
+                                listener.onServerMemberRemove(api, user, ImplServer.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
                             }
                         }
                     }
@@ -706,17 +697,15 @@ public class ImplServer implements Server {
                 final Role role = new ImplRole(response.getBody().getObject(), ImplServer.this, api);
                 logger.info("Created role in server {} (name: {}, id: {})",
                         ImplServer.this, role.getName(), role.getId());
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<RoleCreateListener> listeners = api.getListeners(RoleCreateListener.class);
-                        synchronized (listeners) {
-                            for (RoleCreateListener listener : listeners) {
-                                try {
-                                    listener.onRoleCreate(api, role);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in RoleCreateListener!", t);
-                                }
+                        RoleCreateListener[] listeners = api.getListenerArray(RoleCreateListener.class);
+                        for (RoleCreateListener listener : listeners) {
+                            try {
+                                listener.onRoleCreate(api, role);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in RoleCreateListener!", t);
                             }
                         }
                     }
@@ -779,18 +768,15 @@ public class ImplServer implements Server {
                 String name = response.getBody().getObject().getString("name");
                 if (!getName().equals(name)) {
                     final String oldName = getName();
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<ServerChangeNameListener> listeners =
-                                    api.getListeners(ServerChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (ServerChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onServerChangeName(api, ImplServer.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in ServerChangeNameListener!", t);
-                                    }
+                            ServerChangeNameListener[] listeners = api.getListenerArray(ServerChangeNameListener.class);
+                            for (ServerChangeNameListener listener : listeners) {
+                                try {
+                                    listener.onServerChangeName(api, ImplServer.this, oldName);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in ServerChangeNameListener!", t);
                                 }
                             }
                         }
@@ -848,12 +834,12 @@ public class ImplServer implements Server {
 
     @Override
     public String getNickname(User user) {
-        return nicknames.get(user.getId());
+        return nicknames.get(getUserId(user));
     }
 
     @Override
     public boolean hasNickname(User user) {
-        return nicknames.contains(user.getId());
+        return nicknames.containsKey(getUserId(user));
     }
 
     @Override
@@ -951,6 +937,29 @@ public class ImplServer implements Server {
         return future;
     }
 
+    @Override
+    public Future<Server> requestMembers() {
+        return requestMembers(null);
+    }
+
+    @Override
+    public Future<Server> requestMembers(FutureCallback<Server> callback) {
+        ListenableFuture<Server> future;
+        if (!api.isSubscribed(EventFamily.MEMBERS)) {
+            future = Futures.immediateFailedFuture(
+                    new IllegalStateException("Members can't be requested without subscribing to members!"));
+        } else if (!isLarge() || (!membersRequested && getMembers().size() >= getMemberCount())) {
+            // small servers always contain all members
+            future = Futures.<Server>immediateFuture(this);
+        } else {
+            future = api.getShardManager().getShardForServer(getId()).getMemberRequestScheduler().request(this);
+        }
+        if (callback != null) {
+            Futures.addCallback(future, callback);
+        }
+        return future;
+    }
+
     /**
      * Sets the name of the server.
      *
@@ -975,7 +984,7 @@ public class ImplServer implements Server {
      * @param user The user to add.
      */
     public void addMember(User user) {
-        members.put(user.getId(), user);
+        members.put(getUserId(user), user);
     }
 
     /**
@@ -987,9 +996,9 @@ public class ImplServer implements Server {
         for (int i = 0; i < members.length(); i++) {
             User member = api.getOrCreateUser(members.getJSONObject(i).getJSONObject("user"));
             if (members.getJSONObject(i).has("nick") && !members.getJSONObject(i).isNull("nick")) {
-                nicknames.put(member.getId(), members.getJSONObject(i).getString("nick"));
+                nicknames.put(getUserId(member), members.getJSONObject(i).getString("nick"));
             }
-            this.members.put(member.getId(), member);
+            this.members.put(getUserId(member), member);
 
             JSONArray memberRoles = members.getJSONObject(i).getJSONArray("roles");
             for (int j = 0; j < memberRoles.length(); j++) {
@@ -1007,8 +1016,8 @@ public class ImplServer implements Server {
      * @param user The user to remove.
      */
     public void removeMember(User user) {
-        members.remove(user.getId());
-        for (Role role : getRoles()) {
+        members.remove(getUserId(user));
+        for (Role role : getMemberRoles(user)) {
             ((ImplRole) role).removeUserNoUpdate(user);
         }
         for (Channel channel : getChannels()) {
@@ -1042,6 +1051,15 @@ public class ImplServer implements Server {
         this.memberCount = memberCount;
     }
 
+    /**
+     * Checks if the offline members of this server were requested when it was created.
+     *
+     * @return Whether the offline members were requested or not.
+     */
+    public boolean hasRequestedMembers() {
+        return membersRequested;
+    }
+
     /**
      * Adds a channel to the server.
      *
@@ -1049,6 +1067,7 @@ public class ImplServer implements Server {
      */
     public void addChannel(Channel channel) {
         channels.put(channel.getId(), channel);
+        api.addChannelToIndex(channel);
     }
 
     /**
@@ -1058,6 +1077,7 @@ public class ImplServer implements Server {
      */
     public void addVoiceChannel(VoiceChannel channel) {
         voiceChannels.put(channel.getId(), channel);
+        api.addVoiceChannelToIndex(channel);
     }
 
     /**
@@ -1076,6 +1096,96 @@ public class ImplServer implements Server {
      */
     public void removeRole(Role role) {
         roles.remove(role.getId());
+        for (User user : role.getUsers()) {
+            removeMemberRole(user, role);
+        }
+    }
+
+    /**
+     * Gets the id of a user without creating a new string.
+     *
+     * @param user The user.
+     * @return The id of the user.
+     */
+    private static long getUserId(User user) {
+        return ((ImplUser) user).getIdAsLong();
+    }
+
+    /**
+     * Gets the roles of a member.
+     *
+     * @param user The member.
+     * @return The roles of the member, ordered by their id.
+     */
+    public List<Role> getMemberRoles(User user) {
+        long[] roleIds = memberRoles.get(getUserId(user));
+        if (roleIds == null) {
+            return new ArrayList<>();
+        }
+        List<Role> userRoles = new ArrayList<>(roleIds.length);
+        for (long roleId : roleIds) {
+            Role role = roles.get(roleId);
+            if (role != null) {
+                userRoles.add(role);
+            }
+        }
+        return userRoles;
+    }
+
+    /**
+     * Adds a role to the role ids of a member.
+     * This method is called by {@link ImplRole#addUserNoUpdate(User)} which also adds the member to the role.
+     *
+     * @param user The member.
+     * @param role The role to add.
+     */
+    public void addMemberRole(User user, Role role) {
+        long roleId = SnowflakeUtil.parseId(role.getId());
+        synchronized (memberRoles) {
+            long[] roleIds = memberRoles.get(getUserId(user));
+            if (roleIds == null) {
+                roleIds = NO_ROLE_IDS;
+            }
+            int index = Arrays.binarySearch(roleIds, roleId);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            long[] newRoleIds = new long[roleIds.length + 1];
+            System.arraycopy(roleIds, 0, newRoleIds, 0, index);
+            newRoleIds[index] = roleId;
+            System.arraycopy(roleIds, index, newRoleIds, index + 1, roleIds.length - index);
+            memberRoles.put(getUserId(user), newRoleIds);
+        }
+    }
+
+    /**
+     * Removes a role from the role ids of a member.
+     * This method is called by {@link ImplRole#removeUserNoUpdate(User)} which also removes the member from the role.
+     *
+     * @param user The member.
+     * @param role The role to remove.
+     */
+    public void removeMemberRole(User user, Role role) {
+        long roleId = SnowflakeUtil.parseId(role.getId());
+        synchronized (memberRoles) {
+            long[] roleIds = memberRoles.get(getUserId(user));
+            if (roleIds == null) {
+                return;
+            }
+            int index = Arrays.binarySearch(roleIds, roleId);
+            if (index < 0) {
+                return;
+            }
+            if (roleIds.length == 1) {
+                memberRoles.remove(getUserId(user));
+                return;
+            }
+            long[] newRoleIds = new long[roleIds.length - 1];
+            System.arraycopy(roleIds, 0, newRoleIds, 0, index);
+            System.arraycopy(roleIds, index + 1, newRoleIds, index, newRoleIds.length - index);
+            memberRoles.put(getUserId(user), newRoleIds);
+        }
     }
 
     /**
@@ -1085,6 +1195,7 @@ public class ImplServer implements Server {
      */
     public void removeChannel(Channel channel) {
         channels.remove(channel.getId());
+        api.removeChannelFromIndex(channel);
     }
 
     /**
@@ -1094,6 +1205,7 @@ public class ImplServer implements Server {
      */
     public void removeVoiceChannel(VoiceChannel channel) {
         voiceChannels.remove(channel.getId());
+        api.removeVoiceChannelFromIndex(channel);
     }
 
     /**
@@ -1131,9 +1243,9 @@ public class ImplServer implements Server {
      */
     public void setNickname(User user, String nickname) {
         if (nickname == null) {
-            nicknames.remove(user.getId());
+            nicknames.remove(getUserId(user));
         } else {
-            nicknames.put(user.getId(), nickname);
+            nicknames.put(getUserId(user), nickname);
         }
     }
 
@@ -67,7 +67,7 @@ public class ImplUser implements User {
 
     private final ImplDiscordAPI api;
 
-    private final String id;
+    private final long id;
     private String name;
     private String avatarId = null;
     private final Object userChannelIdLock = new Object();
@@ -87,7 +87,7 @@ public class ImplUser implements User {
     public ImplUser(JSONObject data, ImplDiscordAPI api) {
         this.api = api;
 
-        id = data.getString("id");
+        id = Long.parseLong(data.getString("id"));
         if (data.has("username")) {
             name = data.getString("username");
         }
@@ -101,11 +101,22 @@ public class ImplUser implements User {
         }
         bot = data.has("bot") && data.getBoolean("bot");
 
-        api.getUserMap().put(id, this);
+        // don't replace a user which was created by another thread in the meantime
+        api.getUserMap().putIfAbsent(id, this);
     }
 
     @Override
     public String getId() {
+        return Long.toString(id);
+    }
+
+    /**
+     * Gets the id of the user as <code>long</code>.
+     * Unlike {@link #getId()} this method doesn't create a new string.
+     *
+     * @return The id of the user.
+     */
+    public long getIdAsLong() {
         return id;
     }
 
@@ -450,15 +461,7 @@ public class ImplUser implements User {
 
     @Override
     public Collection<Role> getRoles(Server server) {
-        Collection<Role> userRoles = new ArrayList<>();
-        Iterator<Role> rolesIterator = server.getRoles().iterator();
-        while (rolesIterator.hasNext()) {
-            Role role = rolesIterator.next();
-            if (role.getUsers().contains(this)) {
-                userRoles.add(role);
-            }
-        }
-        return userRoles;
+        return ((ImplServer) server).getMemberRoles(this);
     }
 
     @Override
@@ -583,6 +586,7 @@ public class ImplUser implements User {
      */
     public void setUserChannelId(String userChannelId) {
         synchronized (userChannelIdLock) {
+            api.updateUserChannelIndex(this, this.userChannelId, userChannelId);
             this.userChannelId = userChannelId;
         }
     }
@@ -604,11 +608,11 @@ public class ImplUser implements User {
                     .post("https://discordapp.com/api/v6/users/" + api.getYourself().getId() + "/channels")
                     .header("authorization", api.getToken())
                     .header("Content-Type", "application/json")
-                    .body(new JSONObject().put("recipient_id", id).toString())
+                    .body(new JSONObject().put("recipient_id", getId()).toString())
                     .asJson();
             api.checkResponse(response);
             api.checkRateLimit(response, RateLimitType.UNKNOWN, null, null);
-            userChannelId = response.getBody().getObject().getString("id");
+            setUserChannelId(response.getBody().getObject().getString("id"));
             logger.debug("Got channel id of user {} (channel id: {})", ImplUser.this, userChannelId);
             return userChannelId;
         }
@@ -674,7 +678,7 @@ public class ImplUser implements User {
 
     @Override
     public int hashCode() {
-        return getId().hashCode();
+        return (int) (id ^ (id >>> 32));
     }
 
 }
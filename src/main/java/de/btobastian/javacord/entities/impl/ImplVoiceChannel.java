@@ -42,7 +42,6 @@ import org.slf4j.Logger;
 
 import java.util.Calendar;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
@@ -150,18 +149,15 @@ public class ImplVoiceChannel implements VoiceChannel {
                 server.removeVoiceChannel(ImplVoiceChannel.this);
                 logger.info("Deleted voice channel {}", ImplVoiceChannel.this);
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<VoiceChannelDeleteListener> listeners =
-                                api.getListeners(VoiceChannelDeleteListener.class);
-                        synchronized (listeners) {
-                            for (VoiceChannelDeleteListener listener : listeners) {
-                                try {
-                                    listener.onVoiceChannelDelete(api, ImplVoiceChannel.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
-                                }
+                        VoiceChannelDeleteListener[] listeners = api.getListenerArray(VoiceChannelDeleteListener.class);
+                        for (VoiceChannelDeleteListener listener : listeners) {
+                            try {
+                                listener.onVoiceChannelDelete(api, ImplVoiceChannel.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
                             }
                         }
                     }
@@ -298,18 +294,16 @@ public class ImplVoiceChannel implements VoiceChannel {
                 if (!updatedName.equals(getName())) {
                     final String oldName = getName();
                     setName(updatedName);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<VoiceChannelChangeNameListener> listeners =
-                                    api.getListeners(VoiceChannelChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (VoiceChannelChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onVoiceChannelChangeName(api, ImplVoiceChannel.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in VoiceChannelChangeNameListener!", t);
-                                    }
+                            VoiceChannelChangeNameListener[] listeners =
+                                    api.getListenerArray(VoiceChannelChangeNameListener.class);
+                            for (VoiceChannelChangeNameListener listener : listeners) {
+                                try {
+                                    listener.onVoiceChannelChangeName(api, ImplVoiceChannel.this, oldName);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in VoiceChannelChangeNameListener!", t);
                                 }
                             }
                         }
@@ -320,18 +314,16 @@ public class ImplVoiceChannel implements VoiceChannel {
                 if (updatedPosition != getPosition()) {
                     final int oldPosition = getPosition();
                     setPosition(updatedPosition);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<VoiceChannelChangePositionListener> listeners =
-                                    api.getListeners(VoiceChannelChangePositionListener.class);
-                            synchronized (listeners) {
-                                for (VoiceChannelChangePositionListener listener : listeners) {
-                                    try {
-                                        listener.onVoiceChannelChangePosition(api, ImplVoiceChannel.this, oldPosition);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in VoiceChannelChangePositionListener!", t);
-                                    }
+                            VoiceChannelChangePositionListener[] listeners =
+                                    api.getListenerArray(VoiceChannelChangePositionListener.class);
+                            for (VoiceChannelChangePositionListener listener : listeners) {
+                                try {
+                                    listener.onVoiceChannelChangePosition(api, ImplVoiceChannel.this, oldPosition);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in VoiceChannelChangePositionListener!", t);
                                 }
                             }
                         }
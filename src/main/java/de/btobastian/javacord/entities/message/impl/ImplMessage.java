@@ -26,10 +26,8 @@ import com.mashape.unirest.http.Unirest;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Channel;
 import de.btobastian.javacord.entities.CustomEmoji;
-import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.entities.impl.ImplServer;
-import de.btobastian.javacord.entities.impl.ImplUser;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.MessageAttachment;
 import de.btobastian.javacord.entities.message.MessageReceiver;
@@ -116,6 +114,18 @@ public class ImplMessage implements Message {
      * @param receiver The receiver of the message.
      */
     public ImplMessage(JSONObject data, ImplDiscordAPI api, MessageReceiver receiver) {
+        this(data, api, receiver, false);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param data A JSONObject containing all necessary data.
+     * @param api  The api of this server.
+     * @param receiver The receiver of the message.
+     * @param fromHistory Whether the message was requested as part of a message history or not.
+     */
+    public ImplMessage(JSONObject data, ImplDiscordAPI api, MessageReceiver receiver, boolean fromHistory) {
         this.api = api;
 
         id = data.getString("id");
@@ -223,7 +233,7 @@ public class ImplMessage implements Message {
             }
         }
 
-        api.addMessage(this);
+        api.addMessage(this, channelId, fromHistory);
     }
 
     @Override
@@ -368,17 +378,15 @@ public class ImplMessage implements Message {
                     }
                 }
                 // call listener
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<MessageDeleteListener> listeners = api.getListeners(MessageDeleteListener.class);
-                        synchronized (listeners) {
-                            for (MessageDeleteListener listener : listeners) {
-                                try {
-                                    listener.onMessageDelete(api, message);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in MessageDeleteListener!", t);
-                                }
+                        MessageDeleteListener[] listeners = api.getListenerArray(MessageDeleteListener.class);
+                        for (MessageDeleteListener listener : listeners) {
+                            try {
+                                listener.onMessageDelete(api, message);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in MessageDeleteListener!", t);
                             }
                         }
                     }
@@ -455,17 +463,15 @@ public class ImplMessage implements Message {
                 final String oldContent = getContent();
                 setContent(content);
                 if (!oldContent.equals(content)) {
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<MessageEditListener> listeners = api.getListeners(MessageEditListener.class);
-                            synchronized (listeners) {
-                                for (MessageEditListener listener : listeners) {
-                                    try {
-                                        listener.onMessageEdit(api, ImplMessage.this, oldContent);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in MessageEditListener!", t);
-                                    }
+                            MessageEditListener[] listeners = api.getListenerArray(MessageEditListener.class);
+                            for (MessageEditListener listener : listeners) {
+                                try {
+                                    listener.onMessageEdit(api, ImplMessage.this, oldContent);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in MessageEditListener!", t);
                                 }
                             }
                         }
@@ -672,17 +678,11 @@ public class ImplMessage implements Message {
      * @return The receiver with the given id.
      */
     private MessageReceiver findReceiver(String channelId) {
-        for (Server server : api.getServers()) {
-            if (server.getChannelById(channelId) != null) {
-                return server.getChannelById(channelId);
-            }
-        }
-        for (User user : api.getUsers()) {
-            if (channelId.equals(((ImplUser) user).getUserChannelId())) {
-                return user;
-            }
+        User user = api.getUserByChannelId(channelId);
+        if (user != null) {
+            return user;
         }
-        return null;
+        return api.getCachedChannelById(channelId);
     }
 
     @Override
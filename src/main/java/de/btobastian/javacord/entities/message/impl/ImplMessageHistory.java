@@ -131,7 +131,7 @@ public class ImplMessageHistory implements MessageHistory {
             String id = messageJson.getString("id");
             Message message = api.getMessageById(id);
             if (message == null) {
-                message = new ImplMessage(messageJson, api, null);
+                message = new ImplMessage(messageJson, api, null, true);
             }
             if (newestMessage == null || message.compareTo(newestMessage) > 0) {
                 newestMessage = message;
@@ -37,7 +37,9 @@ import org.slf4j.Logger;
 
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
@@ -69,7 +71,7 @@ public class ImplRole implements Role {
     private boolean mentionable;
     private boolean managed;
 
-    private final List<User> users = new ArrayList<>();
+    private final Set<User> users = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
 
     /**
      * Creates a new instance of this class.
@@ -247,18 +249,16 @@ public class ImplRole implements Role {
                     final ImplPermissions oldPermissions = ImplRole.this.permissions;
                     ImplRole.this.permissions = new ImplPermissions(allow);
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangePermissionsListener> listeners =
-                                    api.getListeners(RoleChangePermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangePermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangePermissions(api, ImplRole.this, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangePermissionsListener!", t);
-                                    }
+                            RoleChangePermissionsListener[] listeners =
+                                    api.getListenerArray(RoleChangePermissionsListener.class);
+                            for (RoleChangePermissionsListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangePermissions(api, ImplRole.this, oldPermissions);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangePermissionsListener!", t);
                                 }
                             }
                         }
@@ -270,17 +270,15 @@ public class ImplRole implements Role {
                     final String oldName = ImplRole.this.name;
                     ImplRole.this.name = name;
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeNameListener> listeners = api.getListeners(RoleChangeNameListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeNameListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeName(api, ImplRole.this, oldName);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeNameListener!", t);
-                                    }
+                            RoleChangeNameListener[] listeners = api.getListenerArray(RoleChangeNameListener.class);
+                            for (RoleChangeNameListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeName(api, ImplRole.this, oldName);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangeNameListener!", t);
                                 }
                             }
                         }
@@ -292,18 +290,15 @@ public class ImplRole implements Role {
                     final Color oldColor = ImplRole.this.color;
                     ImplRole.this.color = new Color(color);
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeColorListener> listeners =
-                                    api.getListeners(RoleChangeColorListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeColorListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeColor(api, ImplRole.this, oldColor);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeColorListener!", t);
-                                    }
+                            RoleChangeColorListener[] listeners = api.getListenerArray(RoleChangeColorListener.class);
+                            for (RoleChangeColorListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeColor(api, ImplRole.this, oldColor);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangeColorListener!", t);
                                 }
                             }
                         }
@@ -314,18 +309,15 @@ public class ImplRole implements Role {
                 if (ImplRole.this.hoist != hoist) {
                     ImplRole.this.hoist = hoist;
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeHoistListener> listeners =
-                                    api.getListeners(RoleChangeHoistListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeHoistListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeHoist(api, ImplRole.this, !ImplRole.this.hoist);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeHoistListener!", t);
-                                    }
+                            RoleChangeHoistListener[] listeners = api.getListenerArray(RoleChangeHoistListener.class);
+                            for (RoleChangeHoistListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeHoist(api, ImplRole.this, !ImplRole.this.hoist);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangeHoistListener!", t);
                                 }
                             }
                         }
@@ -335,18 +327,16 @@ public class ImplRole implements Role {
                 if (ImplRole.this.managed != managed) {
                     ImplRole.this.managed = managed;
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeManagedListener> listeners =
-                                    api.getListeners(RoleChangeManagedListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeManagedListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeManaged(api, ImplRole.this, !ImplRole.this.managed);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeManagedListener!", t);
-                                    }
+                            RoleChangeManagedListener[] listeners =
+                                    api.getListenerArray(RoleChangeManagedListener.class);
+                            for (RoleChangeManagedListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeManaged(api, ImplRole.this, !ImplRole.this.managed);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangeManagedListener!", t);
                                 }
                             }
                         }
@@ -356,18 +346,16 @@ public class ImplRole implements Role {
                 if (ImplRole.this.mentionable != mentionable) {
                     ImplRole.this.mentionable = mentionable;
                     // call listener
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeMentionableListener> listeners =
-                                    api.getListeners(RoleChangeMentionableListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeMentionableListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeMentionable(api, ImplRole.this, !ImplRole.this.mentionable);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in RoleChangeMentionableListener!", t);
-                                    }
+                            RoleChangeMentionableListener[] listeners =
+                                    api.getListenerArray(RoleChangeMentionableListener.class);
+                            for (RoleChangeMentionableListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeMentionable(api, ImplRole.this, !ImplRole.this.mentionable);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in RoleChangeMentionableListener!", t);
                                 }
                             }
                         }
@@ -391,17 +379,15 @@ public class ImplRole implements Role {
                 api.checkResponse(response);
                 server.removeRole(ImplRole.this);
                 logger.info("Deleted role {}", ImplRole.this);
-                api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                api.getListenerExecutorService().submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<RoleDeleteListener> listeners = api.getListeners(RoleDeleteListener.class);
-                        synchronized (listeners) {
-                            for (RoleDeleteListener listener : listeners) {
-                                try {
-                                    listener.onRoleDelete(api, ImplRole.this);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in RoleDeleteListener!", t);
-                                }
+                        RoleDeleteListener[] listeners = api.getListenerArray(RoleDeleteListener.class);
+                        for (RoleDeleteListener listener : listeners) {
+                            try {
+                                listener.onRoleDelete(api, ImplRole.this);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in RoleDeleteListener!", t);
                             }
                         }
                     }
@@ -429,10 +415,15 @@ public class ImplRole implements Role {
      * Adds an user.
      *
      * @param user The user to add.
+     * @return Whether the user was added or already had the role.
      */
-    public void addUserNoUpdate(User user) {
+    public boolean addUserNoUpdate(User user) {
         synchronized (users) {
-            users.add(user);
+            if (!users.add(user)) {
+                return false;
+            }
+            server.addMemberRole(user, this);
+            return true;
         }
     }
 
@@ -440,10 +431,15 @@ public class ImplRole implements Role {
      * Removes an user.
      *
      * @param user The user to remove.
+     * @return Whether the user was removed or didn't have the role.
      */
-    public void removeUserNoUpdate(User user) {
+    public boolean removeUserNoUpdate(User user) {
         synchronized (users) {
-            users.remove(user);
+            if (!users.remove(user)) {
+                return false;
+            }
+            server.removeMemberRole(user, this);
+            return true;
         }
     }
 
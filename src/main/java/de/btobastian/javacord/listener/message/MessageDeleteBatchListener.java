@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.message;
+
+import de.btobastian.javacord.DiscordAPI;
+import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.listener.Listener;
+
+import java.util.List;
+
+/**
+ * This listener listens to message deletions and receives them in batches.
+ * A batch is passed to the listener as soon as it's full or the batch window is over
+ * (see {@link DiscordAPI#setListenerBatchSize(int)} and {@link DiscordAPI#setListenerBatchWindow(int)}).
+ */
+public interface MessageDeleteBatchListener extends Listener {
+
+    /**
+     * This method is called every time a batch of deleted messages was collected.
+     *
+     * @param api The api.
+     * @param messages The deleted messages in the order they were received. Never empty!
+     */
+    public void onMessageDeleteBatch(DiscordAPI api, List<Message> messages);
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.publisher;
+
+import de.btobastian.javacord.entities.message.Message;
+
+/**
+ * An edited message which is published by {@link de.btobastian.javacord.DiscordAPI#getMessageEditPublisher()}.
+ */
+public interface MessageEditEvent {
+
+    /**
+     * Gets the edited message.
+     *
+     * @return The edited message.
+     */
+    public Message getMessage();
+
+    /**
+     * Gets the content of the message before it was edited.
+     *
+     * @return The old content of the message.
+     */
+    public String getOldContent();
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.publisher;
+
+/**
+ * A publisher of events which only passes as many events to its subscribers as they requested.
+ *
+ * This is the same contract as the <code>Publisher</code> of the Reactive Streams specification. Events which are
+ * published while a subscriber has no outstanding demand are buffered per subscriber, so a slow subscriber never
+ * delays the listeners or other subscribers.
+ *
+ * @param <T> The type of the events.
+ */
+public interface Publisher<T> {
+
+    /**
+     * Adds a subscriber. The subscriber doesn't receive any events until it requested them using the subscription
+     * which is passed to {@link Subscriber#onSubscribe(Subscription)}.
+     *
+     * @param subscriber The subscriber.
+     */
+    public void subscribe(Subscriber<? super T> subscriber);
+
+    /**
+     * Adds a subscriber with a custom buffer.
+     * The buffer holds the events which are published while the subscriber has no outstanding demand.
+     *
+     * @param subscriber The subscriber.
+     * @param bufferSize The maximum amount of buffered events. Must be at least <code>1</code>.
+     * @param strategy What happens if an event is published while the buffer is full.
+     */
+    public void subscribe(Subscriber<? super T> subscriber, int bufferSize, BufferOverflowStrategy strategy);
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.publisher;
+
+/**
+ * A subscriber of a {@link Publisher}.
+ *
+ * All methods of a subscriber are called one after another, but not necessarily by the same thread.
+ *
+ * @param <T> The type of the events.
+ */
+public interface Subscriber<T> {
+
+    /**
+     * This method is called once after the subscriber was added to a publisher.
+     *
+     * @param subscription The subscription which is used to request events.
+     */
+    public void onSubscribe(Subscription subscription);
+
+    /**
+     * This method is called for every requested event.
+     *
+     * @param event The event.
+     */
+    public void onNext(T event);
+
+    /**
+     * This method is called if the subscription failed (e.g. because the buffer overflowed). No more events are
+     * passed to the subscriber afterwards.
+     *
+     * @param throwable The reason.
+     */
+    public void onError(Throwable throwable);
+
+    /**
+     * This method is called if the publisher doesn't publish any more events.
+     */
+    public void onComplete();
+
+}
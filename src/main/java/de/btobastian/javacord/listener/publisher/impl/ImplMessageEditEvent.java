@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.publisher.impl;
+
+import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.listener.publisher.MessageEditEvent;
+
+/**
+ * The implementation of {@link MessageEditEvent}.
+ */
+public class ImplMessageEditEvent implements MessageEditEvent {
+
+    private final Message message;
+    private final String oldContent;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param message The edited message.
+     * @param oldContent The content of the message before it was edited.
+     */
+    public ImplMessageEditEvent(Message message, String oldContent) {
+        this.message = message;
+        this.oldContent = oldContent;
+    }
+
+    @Override
+    public Message getMessage() {
+        return message;
+    }
+
+    @Override
+    public String getOldContent() {
+        return oldContent;
+    }
+
+}
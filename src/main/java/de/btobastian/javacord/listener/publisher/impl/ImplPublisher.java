@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.publisher.impl;
+
+import de.btobastian.javacord.listener.publisher.BufferOverflowStrategy;
+import de.btobastian.javacord.listener.publisher.Publisher;
+import de.btobastian.javacord.listener.publisher.Subscriber;
+import de.btobastian.javacord.listener.publisher.Subscription;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The implementation of {@link Publisher}.
+ *
+ * Every subscriber has its own bounded buffer. Events are passed to a subscriber by a task of the given executor
+ * service, so publishing never waits for a subscriber.
+ *
+ * @param <T> The type of the events.
+ */
+public class ImplPublisher<T> implements Publisher<T> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(ImplPublisher.class);
+
+    private final ExecutorService executorService;
+    private final int defaultBufferSize;
+    private final BufferOverflowStrategy defaultStrategy;
+
+    private final CopyOnWriteArrayList<ImplSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param executorService The executor service which passes the events to the subscribers.
+     * @param bufferSize The default size of the buffer of every subscriber.
+     * @param strategy The default strategy if the buffer of a subscriber is full.
+     */
+    public ImplPublisher(ExecutorService executorService, int bufferSize, BufferOverflowStrategy strategy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be at least 1!");
+        }
+        this.executorService = executorService;
+        this.defaultBufferSize = bufferSize;
+        this.defaultStrategy = strategy;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        subscribe(subscriber, defaultBufferSize, defaultStrategy);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber, int bufferSize, BufferOverflowStrategy strategy) {
+        if (subscriber == null) {
+            throw new NullPointerException("The subscriber must not be null!");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("The buffer size must be at least 1!");
+        }
+        if (strategy == null) {
+            throw new NullPointerException("The strategy must not be null!");
+        }
+        ImplSubscription subscription = new ImplSubscription(subscriber, bufferSize, strategy);
+        subscriptions.add(subscription);
+        subscription.drain(); // calls onSubscribe(...)
+    }
+
+    /**
+     * Publishes an event to all subscribers.
+     *
+     * @param event The event.
+     */
+    public void publish(T event) {
+        for (ImplSubscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Completes all subscriptions after their buffered events were passed to the subscribers.
+     */
+    public void complete() {
+        for (ImplSubscription subscription : subscriptions) {
+            subscription.complete(null);
+        }
+    }
+
+    /**
+     * Checks if the publisher has subscribers.
+     *
+     * @return Whether the publisher has subscribers or not.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * The subscription of a single subscriber.
+     */
+    private class ImplSubscription implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final int bufferSize;
+        private final BufferOverflowStrategy strategy;
+
+        private final ArrayDeque<T> buffer = new ArrayDeque<>();
+        private final AtomicLong requested = new AtomicLong();
+        // the amount of drain calls which were not handled by the drain loop yet
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        private boolean subscribed = false; // only used by the drain loop
+        private volatile boolean cancelled = false;
+        private volatile boolean done = false;
+        private volatile Throwable error = null;
+
+        private ImplSubscription(Subscriber<? super T> subscriber, int bufferSize, BufferOverflowStrategy strategy) {
+            this.subscriber = subscriber;
+            this.bufferSize = bufferSize;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                complete(new IllegalArgumentException("The amount of requested events must be positive!"));
+                return;
+            }
+            for (;;) {
+                long current = requested.get();
+                long updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (requested.compareAndSet(current, updated)) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (buffer) {
+                buffer.clear();
+            }
+        }
+
+        /**
+         * Adds an event to the buffer.
+         *
+         * @param event The event.
+         */
+        private void offer(T event) {
+            if (done || cancelled) {
+                return;
+            }
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    switch (strategy) {
+                        case DROP_OLDEST:
+                            buffer.poll();
+                            break;
+                        case DROP_LATEST:
+                            logger.debug("Dropped event for slow subscriber {}", subscriber);
+                            return;
+                        case ERROR:
+                            buffer.clear();
+                            complete(new IllegalStateException(
+                                    "The buffer of the subscriber is full (" + bufferSize + " events)!"));
+                            return;
+                    }
+                }
+                buffer.offer(event);
+            }
+            drain();
+        }
+
+        /**
+         * Completes the subscription after all buffered events were passed to the subscriber.
+         *
+         * @param throwable The error which is passed to the subscriber. <code>Null</code> to complete normally.
+         */
+        private void complete(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            if (throwable != null) {
+                synchronized (buffer) {
+                    buffer.clear();
+                }
+            }
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        /**
+         * Starts the drain loop if it's not running yet.
+         */
+        private void drain() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        drainLoop();
+                    }
+                });
+            }
+        }
+
+        /**
+         * Passes the buffered events to the subscriber as long as it has demand.
+         * Only one drain loop runs at the same time, so the subscriber is never called concurrently.
+         */
+        private void drainLoop() {
+            int missed = 1;
+            for (;;) {
+                if (!subscribed) {
+                    subscribed = true;
+                    if (!call(new Runnable() {
+                        @Override
+                        public void run() {
+                            subscriber.onSubscribe(ImplSubscription.this);
+                        }
+                    })) {
+                        return;
+                    }
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand && !cancelled) {
+                    final T event;
+                    synchronized (buffer) {
+                        event = buffer.poll();
+                    }
+                    if (event == null) {
+                        break;
+                    }
+                    if (!call(new Runnable() {
+                        @Override
+                        public void run() {
+                            subscriber.onNext(event);
+                        }
+                    })) {
+                        return;
+                    }
+                    emitted++;
+                }
+                if (cancelled) {
+                    return;
+                }
+                boolean empty;
+                synchronized (buffer) {
+                    empty = buffer.isEmpty();
+                }
+                if (done && empty) {
+                    cancel();
+                    final Throwable throwable = error;
+                    call(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (throwable == null) {
+                                subscriber.onComplete();
+                            } else {
+                                subscriber.onError(throwable);
+                            }
+                        }
+                    });
+                    return;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = pendingDrains.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Calls the subscriber. The subscription is cancelled if the subscriber throws an exception.
+         *
+         * @param call The call.
+         * @return Whether the call was successful or not.
+         */
+        private boolean call(Runnable call) {
+            try {
+                call.run();
+                return true;
+            } catch (Throwable t) {
+                logger.warn("Uncaught exception in Subscriber!", t);
+                cancel();
+                return false;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.listener.server;
+
+import de.btobastian.javacord.DiscordAPI;
+import de.btobastian.javacord.entities.Server;
+import de.btobastian.javacord.listener.Listener;
+
+/**
+ * This listener listens to the progress of loading the servers on startup.
+ * The listener must be registered before connecting.
+ */
+public interface ServerLoadListener extends Listener {
+
+    /**
+     * This method is called every time a server was loaded completely (including the members of large servers) on
+     * startup.
+     *
+     * @param api The api.
+     * @param server The loaded server.
+     * @param loadedServers The amount of servers of the connection which are loaded.
+     * @param totalServers The amount of servers of the connection.
+     */
+    public void onServerLoad(DiscordAPI api, Server server, int loadedServers, int totalServers);
+
+}
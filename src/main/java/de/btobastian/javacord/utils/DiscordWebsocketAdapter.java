@@ -34,18 +34,18 @@ import de.btobastian.javacord.utils.handler.server.role.GuildRoleUpdateHandler;
 import de.btobastian.javacord.utils.handler.user.PresenceUpdateHandler;
 import de.btobastian.javacord.utils.handler.user.UserGuildSettingsUpdateHandler;
 import de.btobastian.javacord.utils.handler.voice.VoiceStateUpdateHandler;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import javax.net.ssl.SSLContext;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
 
 /**
  * The main websocket adapter.
@@ -57,24 +57,48 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      */
     private static final Logger logger = LoggerUtil.getLogger(DiscordWebsocketAdapter.class);
 
+    /**
+     * The maximum time in milliseconds we wait for frames of the old connection before we resume.
+     */
+    private static final long FRAME_DRAIN_TIMEOUT = 5000;
+
     private final ImplDiscordAPI api;
     private final HashMap<String, PacketHandler> handlers = new HashMap<>();
+    // packets of event families the bot isn't subscribed to
+    private final HashSet<String> ignoredPacketTypes = new HashSet<>();
     private final SettableFuture<Boolean> ready = SettableFuture.create();
     private final String gateway;
-
-    private WebSocket websocket = null;
-
-    private Timer heartbeatTimer = null;
+    private final boolean zlibStream;
+    private final boolean etf;
+    private final GatewayDecompressor decompressor;
+    private final FrameRingBuffer frameBuffer;
+    private final GatewayCommandQueue commandQueue;
+    private final StartupTracker startupTracker;
+    private final MemberRequestScheduler memberRequestScheduler;
+    private final ShardManager shardManager;
+    private final int shardId;
+
+    private volatile WebSocket websocket = null;
+    // the websocket of the last decompressed frame
+    private WebSocket decompressedWebsocket = null;
+
+    private ScheduledFuture<?> heartbeatTimer = null;
 
     private int heartbeatInterval = -1;
-    private int lastSeq = -1;
-    private String sessionId = null;
+    // written by the decoder thread (if the frame buffer is used) and read by the websocket and heartbeat threads
+    private volatile int lastSeq = -1;
+    private volatile String sessionId = null;
 
-    private boolean heartbeatAckReceived = false;
+    private volatile boolean heartbeatAckReceived = false;
+    private volatile long lastHeartbeatSent = -1;
+    private volatile long latency = -1;
 
-    private boolean reconnect = true;
+    // the round-trip times of the last heartbeats (for the average latency)
+    private final long[] latencySamples = new long[10];
+    private int latencySampleCount = 0;
+    private int latencySampleIndex = 0;
 
-    private long lastGuildMembersChunkReceived = System.currentTimeMillis();
+    private boolean reconnect = true;
 
     // We allow 5 reconnects per 5 minutes.
     // This limit should never be hit under normal conditions, but prevent reconnect loops.
@@ -83,11 +107,62 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
     private int ratelimitResetIntervalInSeconds = 5*60;
 
     public DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway) {
+        this(api, gateway, null, 0);
+    }
+
+    /**
+     * Creates a new websocket adapter for a shard and connects it.
+     *
+     * @param api The api.
+     * @param gateway The gateway to connect to.
+     * @param shardManager The shard manager of the adapter. Can be <code>null</code> if sharding isn't used.
+     * @param shardId The id of the shard.
+     */
+    public DiscordWebsocketAdapter(ImplDiscordAPI api, String gateway, ShardManager shardManager, int shardId) {
         this.api = api;
         this.gateway = gateway;
+        this.shardManager = shardManager;
+        this.shardId = shardId;
+        for (EventFamily family : EventFamily.values()) {
+            if (!api.isSubscribed(family)) {
+                Collections.addAll(ignoredPacketTypes, family.getPacketTypes());
+            }
+        }
+        this.zlibStream = api.isUsingZlibStreamCompression();
+        this.etf = api.isUsingEtfEncoding();
+        this.decompressor = new GatewayDecompressor(zlibStream);
+        this.commandQueue = new GatewayCommandQueue(this, api.getThreadPool().getScheduler());
+        this.startupTracker = new StartupTracker(api, ready);
+        this.memberRequestScheduler = new MemberRequestScheduler(this, api.getThreadPool().getScheduler());
 
         registerHandlers();
 
+        if (api.getFrameBufferSize() > 0) {
+            // the reading thread only stores the frames, a decoder thread handles them
+            frameBuffer = new FrameRingBuffer(api.getFrameBufferSize());
+            frameBuffer.start(new FrameRingBuffer.FrameHandler() {
+                @Override
+                public void onFrame(WebSocket websocket, String text, byte[] binary) throws Exception {
+                    if (text != null) {
+                        onTextFrame(websocket, text);
+                    } else {
+                        onBinaryFrame(websocket, binary);
+                    }
+                }
+
+                @Override
+                public void onClose() {
+                    // the decompressor is only used by the decoder thread
+                    decompressor.close();
+                }
+            }, "Javacord - Decoder - Shard " + shardId);
+        } else {
+            frameBuffer = null;
+        }
+
+        if (shardManager != null) {
+            shardManager.setShard(shardId, this);
+        }
         connect();
     }
 
@@ -106,8 +181,11 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
         } catch (NoSuchAlgorithmException e) {
             logger.warn("An error occurred while setting ssl context", e);
         }
+        // every connection starts with a new command budget
+        commandQueue.reset();
         try {
-            websocket = factory.createSocket(gateway + "?encoding=json&v=6");
+            websocket = factory.createSocket(gateway + "?encoding=" + (etf ? "etf" : "json") + "&v=6"
+                    + (zlibStream ? "&compress=zlib-stream" : ""));
             websocket.addHeader("Accept-Encoding", "gzip");
             websocket.addListener(this);
             websocket.connect();
@@ -118,6 +196,11 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
 
     @Override
     public void onConnected(WebSocket websocket, Map<String, List<String>> headers) throws Exception {
+        // frames of the old connection may still wait in the frame buffer. They update the sequence (and maybe the
+        // session), so we have to handle them before we resume, or we would resume with an outdated sequence.
+        if (frameBuffer != null && !frameBuffer.awaitDecoded(FRAME_DRAIN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            logger.debug("Frames of the old connection are still decoded. Resuming with sequence {}", lastSeq);
+        }
         if (sessionId == null) {
             sendIdentify(websocket);
         } else {
@@ -145,14 +228,22 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
             }
         }
 
+        logger.debug("Received {} compressed bytes so far ({} bytes decompressed, ratio: {})",
+                decompressor.getCompressedBytes(), decompressor.getDecompressedBytes(),
+                decompressor.getCompressionRatio());
+
+        // don't keep the events of the lost connection until the batch window of the next event is over
+        api.flushEventBatchers();
+
         if (!ready.isDone()) {
             ready.set(false);
+            stopDecoder();
             return;
         }
 
         // Reconnect
         if (heartbeatTimer != null) {
-            heartbeatTimer.cancel();
+            heartbeatTimer.cancel(false);
             heartbeatTimer = null;
         }
 
@@ -162,62 +253,133 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                 long timestamp = ratelimitQueue.poll();
                 if (System.currentTimeMillis() - (1000*ratelimitResetIntervalInSeconds) < timestamp) {
                     logger.error("Websocket connection failed more than {} times in the last {} seconds! Stopping reconnecting.", reconnectAttempts, ratelimitResetIntervalInSeconds);
+                    stopDecoder();
                     return;
                 }
             }
             connect();
+        } else {
+            stopDecoder();
+        }
+    }
+
+    /**
+     * Stops the decoder thread (if the frame buffer is used) and releases the native resources of the decompressor.
+     * This is called if the adapter won't reconnect anymore.
+     */
+    private void stopDecoder() {
+        if (frameBuffer != null) {
+            // the decoder thread closes the decompressor after the remaining frames were handled
+            frameBuffer.close();
+        } else {
+            decompressor.close();
         }
     }
 
     @Override
     public void onTextMessage(WebSocket websocket, String text) throws Exception {
-        JSONObject packet = new JSONObject(text);
+        if (frameBuffer != null) {
+            frameBuffer.publishText(websocket, text);
+            return;
+        }
+        onTextFrame(websocket, text);
+    }
+
+    @Override
+    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
+        if (frameBuffer != null) {
+            frameBuffer.publishBinary(websocket, binary);
+            return;
+        }
+        onBinaryFrame(websocket, binary);
+    }
 
-        int op = packet.getInt("op");
+    /**
+     * Decodes and handles a text frame.
+     *
+     * @param websocket The websocket which received the frame.
+     * @param text The text of the frame.
+     */
+    private void onTextFrame(WebSocket websocket, String text) {
+        onPacket(websocket, GatewayEnvelope.scan(text));
+    }
+
+    /**
+     * Decodes and handles a binary frame.
+     *
+     * @param websocket The websocket which received the frame.
+     * @param binary The data of the frame.
+     */
+    private void onBinaryFrame(WebSocket websocket, byte[] binary) {
+        if (websocket != decompressedWebsocket) {
+            // every connection starts with a new zlib context
+            decompressor.reset();
+            decompressedWebsocket = websocket;
+        }
+        if (etf && !zlibStream && binary.length > 0 && (binary[0] & 0xFF) == EtfDecoder.VERSION) {
+            // an uncompressed etf packet
+            onPacket(websocket, GatewayEnvelope.scanEtf(binary, 0, binary.length));
+            return;
+        }
+        int length;
+        try {
+            length = decompressor.decompress(binary);
+        } catch (DataFormatException e) {
+            logger.warn("An error occurred while decompressing data", e);
+            return;
+        }
+        if (length < 0) {
+            return; // the message isn't complete yet
+        }
+        // scan the decompressed data directly without creating a string first
+        if (etf) {
+            onPacket(websocket, GatewayEnvelope.scanEtf(decompressor.getBuffer(), 0, length));
+        } else {
+            onPacket(websocket, GatewayEnvelope.scan(decompressor.getBuffer(), 0, length));
+        }
+    }
+
+    /**
+     * Handles a received packet.
+     *
+     * @param websocket The websocket which received the packet.
+     * @param packet The envelope of the packet. The payload is only parsed if it's needed.
+     */
+    private void onPacket(WebSocket websocket, GatewayEnvelope packet) {
+        int op = packet.getOp();
 
         switch (op) {
             case 0:
-                lastSeq = packet.getInt("s");
-                String type = packet.getString("t");
+                if (packet.getSequence() >= 0) {
+                    lastSeq = packet.getSequence();
+                }
+                String type = packet.getType();
                 PacketHandler handler = handlers.get(type);
-                if (handler != null) {
-                    handler.handlePacket(packet.getJSONObject("d"));
-                } else {
-                    logger.debug("Received unknown packet of type {} (packet: {})", type, packet.toString());
+                if (ignoredPacketTypes.contains(type)) {
+                    // we are not subscribed to this event family. Don't even parse the payload.
+                } else if (handler == null) {
+                    logger.debug("Received unknown packet of type {} (packet: {})", type, packet);
+                } else if (handler.isRequired()) {
+                    handler.handlePacket(packet.getData());
                 }
 
-                if (type.equals("GUILD_MEMBERS_CHUNK")) {
-                    lastGuildMembersChunkReceived = System.currentTimeMillis();
-                }
                 if (type.equals("RESUMED")) {
                     // We are the one who send the first heartbeat
                     heartbeatAckReceived = true;
                     heartbeatTimer = startHeartbeat(websocket, heartbeatInterval);
+                    commandQueue.onIdentified();
                     logger.debug("Received RESUMED packet");
                 }
                 if (type.equals("READY") && sessionId == null) {
                     // We are the one who send the first heartbeat
                     heartbeatAckReceived = true;
                     heartbeatTimer = startHeartbeat(websocket, heartbeatInterval);
-                    sessionId = packet.getJSONObject("d").getString("session_id");
+                    commandQueue.onIdentified();
+                    sessionId = packet.getData().getString("session_id");
                     if (api.isWaitingForServersOnStartup()) {
-                        // Discord sends us GUILD_CREATE packets after logging in. We will wait for them.
-                        api.getThreadPool().getSingleThreadExecutorService("startupWait").submit(new Runnable() {
-                            @Override
-                            public void run() {
-                                int amount = api.getServers().size();
-                                for (;;) {
-                                    try {
-                                        Thread.sleep(1500);
-                                    } catch (InterruptedException ignored) { }
-                                    if (api.getServers().size() <= amount && lastGuildMembersChunkReceived + 1500 < System.currentTimeMillis()) {
-                                        break; // 1.5 seconds without new servers becoming available and no GUILD_MEMBERS_CHUNK packet
-                                    }
-                                    amount = api.getServers().size();
-                                }
-                                ready.set(true);
-                            }
-                        });
+                        // Discord sends us GUILD_CREATE packets for every server of the ready packet. We will wait
+                        // for them (and the members of large servers).
+                        startupTracker.start(packet.getData());
                     } else {
                         ready.set(true);
                     }
@@ -225,6 +387,9 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                 } else if (type.equals("READY")) {
                     heartbeatAckReceived = true;
                     heartbeatTimer = startHeartbeat(websocket, heartbeatInterval);
+                    commandQueue.onIdentified();
+                    // member requests of the old session are lost
+                    memberRequestScheduler.onNewSession();
                 }
                 break;
             case 1:
@@ -241,69 +406,55 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                 sendIdentify(websocket);
                 break;
             case 10:
-                JSONObject data = packet.getJSONObject("d");
+                JSONObject data = packet.getData();
                 heartbeatInterval = data.getInt("heartbeat_interval");
                 logger.debug("Received HELLO packet");
                 break;
             case 11:
                 heartbeatAckReceived = true;
+                if (lastHeartbeatSent >= 0) {
+                    addLatencySample((System.nanoTime() - lastHeartbeatSent) / 1000000);
+                }
                 break;
             default:
-                logger.debug("Received unknown packet (op: {}, content: {})", op, packet.toString());
+                logger.debug("Received unknown packet (op: {}, content: {})", op, packet);
                 break;
         }
     }
 
-    @Override
-    public void onBinaryMessage(WebSocket websocket, byte[] binary) throws Exception {
-        Inflater decompressor = new Inflater();
-        decompressor.setInput(binary);
-        ByteArrayOutputStream bos = new ByteArrayOutputStream(binary.length);
-        byte[] buf = new byte[1024];
-        while (!decompressor.finished()) {
-            int count;
-            try {
-                count = decompressor.inflate(buf);
-            } catch (DataFormatException e) {
-                logger.warn("An error occurred while decompressing data", e);
-                return;
-            }
-            bos.write(buf, 0, count);
-        }
-        try {
-            bos.close();
-        } catch (IOException ignored) { }
-        byte[] decompressedData = bos.toByteArray();
-        try {
-            onTextMessage(websocket, new String(decompressedData, "UTF-8"));
-        } catch (UnsupportedEncodingException e) {
-            logger.warn("An error occurred while decompressing data", e);
-        }
-    }
-
     /**
      * Starts the heartbeat.
+     * The heartbeats of all connections are driven by the shared scheduler of the thread pool. If the last
+     * heartbeat was not acknowledged when the next one is due, the connection is considered dead (zombied) and
+     * closed immediately, so we can resume the session.
      *
      * @param websocket The websocket the heartbeat should be sent to.
      * @param heartbeatInterval The heartbeat interval.
-     * @return The timer used for the heartbeat.
+     * @return The scheduled future of the heartbeat.
      */
-    private Timer startHeartbeat(final WebSocket websocket, final int heartbeatInterval) {
-        final Timer timer = new Timer(true);
-        timer.scheduleAtFixedRate(new TimerTask() {
+    private ScheduledFuture<?> startHeartbeat(final WebSocket websocket, final int heartbeatInterval) {
+        if (heartbeatTimer != null) {
+            heartbeatTimer.cancel(false);
+        }
+        return api.getThreadPool().getScheduler().scheduleAtFixedRate(new Runnable() {
             @Override
             public void run() {
-                /* if (heartbeatAckReceived) { temporally removed */
-                    heartbeatAckReceived = false;
-                    sendHeartbeat(websocket);
-                    logger.debug("Sent heartbeat (interval: {})", heartbeatInterval);
-                /*} else {
-                    logger.info("We did not receive an answer to our last heartbeat. Trying to reconnect!");
-                    websocket.sendClose(1002);
-                }*/
+                try {
+                    if (heartbeatAckReceived) {
+                        heartbeatAckReceived = false;
+                        sendHeartbeat(websocket);
+                        logger.debug("Sent heartbeat (interval: {})", heartbeatInterval);
+                    } else {
+                        logger.info("We did not receive an answer to our last heartbeat. Trying to resume!");
+                        // don't wait for the close frame of the server. The connection is most likely dead.
+                        websocket.disconnect(1002, "No heartbeat ACK received", 0);
+                    }
+                } catch (Exception e) {
+                    // exceptions would stop the scheduled heartbeat
+                    logger.warn("An error occurred while sending heartbeat", e);
+                }
             }
-        }, 0, heartbeatInterval);
-        return timer;
+        }, 0, heartbeatInterval, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -315,7 +466,8 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
         JSONObject heartbeatPacket = new JSONObject();
         heartbeatPacket.put("op", 1);
         heartbeatPacket.put("d", lastSeq);
-        websocket.sendText(heartbeatPacket.toString());
+        lastHeartbeatSent = System.nanoTime();
+        commandQueue.enqueuePriority(heartbeatPacket);
     }
 
     /**
@@ -331,15 +483,17 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                         .put("session_id", sessionId)
                         .put("seq", lastSeq));
         logger.debug("Sending resume packet");
-        websocket.sendText(resumePacket.toString());
+        commandQueue.enqueuePriority(resumePacket);
     }
 
     /**
      * Sends the identify packet.
+     * If other shards identified recently, the packet is sent later by the scheduler. This method never blocks,
+     * because it's called by the websocket thread which must keep reading (e.g. the heartbeat acks).
      *
      * @param websocket The websocket the identify packet should be sent to.
      */
-    private void sendIdentify(WebSocket websocket) {
+    private void sendIdentify(final WebSocket websocket) {
         JSONObject identifyPacket = new JSONObject()
                 .put("op", 2)
                 .put("d", new JSONObject()
@@ -350,14 +504,42 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                                 .put("$device", "Javacord")
                                 .put("$referrer", "")
                                 .put("$referring_domain", ""))
-                        .put("compress", true)
+                        // zlib-stream compresses the whole connection, so we don't need compressed payloads
+                        .put("compress", !zlibStream)
                         .put("large_threshold", 250));
+        if (shardManager != null) {
+            identifyPacket.getJSONObject("d")
+                    .put("shard", new JSONArray().put(shardId).put(shardManager.getTotalShards()));
+            // discord only allows one identify every 5 seconds
+            long delay = shardManager.reserveIdentify();
+            if (delay > 0) {
+                logger.debug("Sending identify packet in {} ms", delay);
+                final JSONObject delayedIdentifyPacket = identifyPacket;
+                api.getThreadPool().getScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        // the identify packet is only valid for the connection it was created for
+                        if (DiscordWebsocketAdapter.this.websocket != websocket) {
+                            logger.debug("Dropping identify packet of a closed connection");
+                            return;
+                        }
+                        try {
+                            commandQueue.enqueuePriority(delayedIdentifyPacket);
+                        } catch (Exception e) {
+                            logger.warn("An error occurred while sending identify packet", e);
+                        }
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
         logger.debug("Sending identify packet");
-        websocket.sendText(identifyPacket.toString());
+        commandQueue.enqueuePriority(identifyPacket);
     }
 
     /**
      * Registers all handlers.
+     * Handlers of event families the bot isn't subscribed to are not registered.
      */
     private void registerHandlers() {
         // general
@@ -409,6 +591,9 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
      * @param handler The handler to add.
      */
     private void addHandler(PacketHandler handler) {
+        if (ignoredPacketTypes.contains(handler.getType())) {
+            return;
+        }
         handlers.put(handler.getType(), handler);
     }
 
@@ -421,6 +606,68 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
         return websocket;
     }
 
+    /**
+     * Gets the id of the shard.
+     *
+     * @return The id of the shard. <code>0</code> if sharding isn't used.
+     */
+    public int getShardId() {
+        return shardId;
+    }
+
+    /**
+     * Checks whether the websocket of the adapter is connected.
+     *
+     * @return Whether the websocket is connected or not.
+     */
+    public boolean isConnected() {
+        WebSocket websocket = this.websocket;
+        return websocket != null && websocket.isOpen();
+    }
+
+    /**
+     * Gets the latency of the connection (the round-trip time of the last heartbeat).
+     *
+     * @return The latency in milliseconds. <code>-1</code> if no heartbeat was acknowledged yet.
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the average latency of the last heartbeats.
+     *
+     * @return The average latency in milliseconds. <code>-1</code> if no heartbeat was acknowledged yet.
+     */
+    public long getAverageLatency() {
+        synchronized (latencySamples) {
+            if (latencySampleCount == 0) {
+                return -1;
+            }
+            long sum = 0;
+            for (int i = 0; i < latencySampleCount; i++) {
+                sum += latencySamples[i];
+            }
+            return sum / latencySampleCount;
+        }
+    }
+
+    /**
+     * Adds a latency sample.
+     *
+     * @param sample The round-trip time of a heartbeat in milliseconds.
+     */
+    private void addLatencySample(long sample) {
+        latency = sample;
+        synchronized (latencySamples) {
+            latencySamples[latencySampleIndex] = sample;
+            latencySampleIndex = (latencySampleIndex + 1) % latencySamples.length;
+            if (latencySampleCount < latencySamples.length) {
+                latencySampleCount++;
+            }
+        }
+    }
+
     /**
      * Gets the Future which tells whether the connection is ready or failed.
      *
@@ -431,7 +678,26 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
     }
 
     /**
-     * Sends the update status packet
+     * Gets the tracker of the servers which are loaded on startup.
+     *
+     * @return The startup tracker.
+     */
+    public StartupTracker getStartupTracker() {
+        return startupTracker;
+    }
+
+    /**
+     * Gets the scheduler which requests the members of the servers of this connection.
+     *
+     * @return The member request scheduler.
+     */
+    public MemberRequestScheduler getMemberRequestScheduler() {
+        return memberRequestScheduler;
+    }
+
+    /**
+     * Sends the update status packet.
+     * If an update status packet is still waiting to be sent, it's replaced by this one.
      */
     public void updateStatus() {
         logger.debug("Updating status (game: {}, idle: {})", api.getGame() == null ? "none" : api.getGame(), api.isIdle());
@@ -449,7 +715,76 @@ public class DiscordWebsocketAdapter extends WebSocketAdapter {
                         .put("game", game)
                         .put("since", api.isIdle() ? 1 : JSONObject.NULL));
         logger.debug(updateStatus.toString(2));
-        websocket.sendText(updateStatus.toString());
+        commandQueue.enqueuePresence(updateStatus);
+    }
+
+    /**
+     * Queues a packet. It's sent as soon as the gateway rate limit allows it.
+     *
+     * @param packet The packet to send.
+     */
+    public void sendPacket(JSONObject packet) {
+        commandQueue.enqueue(packet);
+    }
+
+    /**
+     * Gets the amount of packets which wait to be sent because of the gateway rate limit.
+     *
+     * @return The amount of queued packets.
+     */
+    public int getQueuedPacketCount() {
+        return commandQueue.getQueueSize();
+    }
+
+    /**
+     * Sends a packet immediately using the encoding of the connection.
+     * Only the command queue should call this method.
+     *
+     * @param packet The packet to send.
+     */
+    void writePacket(JSONObject packet) {
+        if (etf) {
+            websocket.sendBinary(EtfEncoder.encode(packet));
+        } else {
+            websocket.sendText(packet.toString());
+        }
+    }
+
+    /**
+     * Gets the buffer between the websocket reading thread and the decoder thread.
+     * It can be used to measure the decoding throughput.
+     *
+     * @return The frame buffer. <code>Null</code> if no frame buffer is used.
+     */
+    public FrameRingBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    /**
+     * Gets the amount of compressed bytes received by this adapter.
+     *
+     * @return The amount of compressed bytes received.
+     */
+    public long getCompressedBytesReceived() {
+        return decompressor.getCompressedBytes();
+    }
+
+    /**
+     * Gets the amount of bytes the received compressed data was inflated to.
+     *
+     * @return The amount of decompressed bytes.
+     */
+    public long getDecompressedBytesReceived() {
+        return decompressor.getDecompressedBytes();
+    }
+
+    /**
+     * Gets the compression ratio of the received data (decompressed bytes / compressed bytes).
+     *
+     * @return The compression ratio. <code>0</code> if no compressed data was received yet.
+     */
+    public double getCompressionRatio() {
+        return decompressor.getCompressionRatio();
     }
 
     /**
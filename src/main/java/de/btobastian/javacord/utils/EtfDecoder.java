@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * This class decodes the Erlang External Term Format (ETF) into the same objects org.json would create for the
+ * equivalent json packet, so every packet handler works with both encodings.
+ *
+ * Maps are decoded to {@link JSONObject}s, lists and tuples to {@link JSONArray}s, binaries and atoms to strings,
+ * <code>nil</code> to {@link JSONObject#NULL} and integers outside the int range (e.g. snowflakes) to strings like
+ * discord does in json packets.
+ */
+public class EtfDecoder {
+
+    /**
+     * The version byte every term starts with.
+     */
+    public static final int VERSION = 131;
+
+    static final int NEW_FLOAT_EXT = 70;
+    static final int COMPRESSED = 80;
+    static final int SMALL_INTEGER_EXT = 97;
+    static final int INTEGER_EXT = 98;
+    static final int FLOAT_EXT = 99;
+    static final int ATOM_EXT = 100;
+    static final int SMALL_TUPLE_EXT = 104;
+    static final int LARGE_TUPLE_EXT = 105;
+    static final int NIL_EXT = 106;
+    static final int STRING_EXT = 107;
+    static final int LIST_EXT = 108;
+    static final int BINARY_EXT = 109;
+    static final int SMALL_BIG_EXT = 110;
+    static final int LARGE_BIG_EXT = 111;
+    static final int SMALL_ATOM_EXT = 115;
+    static final int MAP_EXT = 116;
+    static final int ATOM_UTF8_EXT = 118;
+    static final int SMALL_ATOM_UTF8_EXT = 119;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private byte[] data;
+    private int pos;
+    private int end;
+
+    /**
+     * Creates a new decoder for the given range. The range must not start with the version byte.
+     *
+     * @param data The data.
+     * @param offset The offset of the first term.
+     * @param end The end (exclusive) of the data.
+     */
+    public EtfDecoder(byte[] data, int offset, int end) {
+        this.data = data;
+        this.pos = offset;
+        this.end = end;
+    }
+
+    /**
+     * Creates a new decoder for the given term. Skips the version byte and inflates compressed terms.
+     *
+     * @param data The encoded term.
+     * @param offset The offset of the version byte.
+     * @param length The length of the encoded term.
+     * @return The decoder, positioned at the first tag of the term.
+     * @throws JSONException If the data is no valid term.
+     */
+    public static EtfDecoder forTerm(byte[] data, int offset, int length) {
+        EtfDecoder decoder = new EtfDecoder(data, offset, offset + length);
+        if (decoder.readUnsignedByte() != VERSION) {
+            throw new JSONException("Unknown ETF version");
+        }
+        if ((data[decoder.pos] & 0xFF) == COMPRESSED) {
+            decoder.pos++;
+            int size = decoder.readInt();
+            byte[] inflated = new byte[size];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, decoder.pos, decoder.end - decoder.pos);
+                if (inflater.inflate(inflated) != size) {
+                    throw new JSONException("Invalid compressed ETF term");
+                }
+            } catch (DataFormatException e) {
+                throw new JSONException(e);
+            } finally {
+                inflater.end();
+            }
+            decoder.data = inflated;
+            decoder.pos = 0;
+            decoder.end = size;
+        }
+        return decoder;
+    }
+
+    /**
+     * Decodes the given term.
+     *
+     * @param data The encoded term (including the version byte).
+     * @return The decoded term.
+     * @throws JSONException If the data is no valid term.
+     */
+    public static Object decode(byte[] data) {
+        return forTerm(data, 0, data.length).readValue();
+    }
+
+    /**
+     * Gets the data the decoder currently reads. This is not the original array if the term was compressed.
+     *
+     * @return The data.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Gets the current position.
+     *
+     * @return The current position.
+     */
+    public int getPosition() {
+        return pos;
+    }
+
+    /**
+     * Gets the end of the data.
+     *
+     * @return The end (exclusive) of the data.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Reads the header of a map.
+     *
+     * @return The arity of the map.
+     * @throws JSONException If the next term is no map.
+     */
+    public int readMapHeader() {
+        int tag = readUnsignedByte();
+        if (tag != MAP_EXT) {
+            throw new JSONException("Expected a map but found tag " + tag);
+        }
+        return readInt();
+    }
+
+    /**
+     * Reads the next term.
+     *
+     * @return The decoded term.
+     */
+    public Object readValue() {
+        int tag = readUnsignedByte();
+        switch (tag) {
+            case SMALL_INTEGER_EXT:
+                return readUnsignedByte();
+            case INTEGER_EXT:
+                return readInt();
+            case NEW_FLOAT_EXT:
+                return Double.longBitsToDouble(readLong());
+            case FLOAT_EXT:
+                return Double.parseDouble(readString(31, ISO_8859_1).trim());
+            case ATOM_EXT:
+                return atom(readString(readUnsignedShort(), ISO_8859_1));
+            case SMALL_ATOM_EXT:
+                return atom(readString(readUnsignedByte(), ISO_8859_1));
+            case ATOM_UTF8_EXT:
+                return atom(readString(readUnsignedShort(), UTF_8));
+            case SMALL_ATOM_UTF8_EXT:
+                return atom(readString(readUnsignedByte(), UTF_8));
+            case BINARY_EXT:
+                return readString(readInt(), UTF_8);
+            case SMALL_BIG_EXT:
+                return readBig(readUnsignedByte());
+            case LARGE_BIG_EXT:
+                return readBig(readInt());
+            case NIL_EXT:
+                return new JSONArray();
+            case STRING_EXT: {
+                // a list of small integers
+                int length = readUnsignedShort();
+                JSONArray array = new JSONArray();
+                for (int i = 0; i < length; i++) {
+                    array.put(readUnsignedByte());
+                }
+                return array;
+            }
+            case LIST_EXT: {
+                int length = readInt();
+                JSONArray array = new JSONArray();
+                for (int i = 0; i < length; i++) {
+                    array.put(readValue());
+                }
+                skipValue(); // tail, always nil for proper lists
+                return array;
+            }
+            case SMALL_TUPLE_EXT:
+                return readTuple(readUnsignedByte());
+            case LARGE_TUPLE_EXT:
+                return readTuple(readInt());
+            case MAP_EXT: {
+                int arity = readInt();
+                JSONObject object = new JSONObject();
+                for (int i = 0; i < arity; i++) {
+                    String key = String.valueOf(readValue());
+                    object.put(key, readValue());
+                }
+                return object;
+            }
+            default:
+                throw new JSONException("Unsupported ETF tag " + tag + " at " + (pos - 1));
+        }
+    }
+
+    /**
+     * Skips the next term without decoding it.
+     */
+    public void skipValue() {
+        int tag = readUnsignedByte();
+        switch (tag) {
+            case SMALL_INTEGER_EXT:
+                skip(1);
+                break;
+            case INTEGER_EXT:
+                skip(4);
+                break;
+            case NEW_FLOAT_EXT:
+                skip(8);
+                break;
+            case FLOAT_EXT:
+                skip(31);
+                break;
+            case ATOM_EXT:
+            case ATOM_UTF8_EXT:
+            case STRING_EXT:
+                skip(readUnsignedShort());
+                break;
+            case SMALL_ATOM_EXT:
+            case SMALL_ATOM_UTF8_EXT:
+                skip(readUnsignedByte());
+                break;
+            case BINARY_EXT:
+                skip(readInt());
+                break;
+            case SMALL_BIG_EXT:
+                skip(readUnsignedByte() + 1);
+                break;
+            case LARGE_BIG_EXT:
+                skip(readInt() + 1);
+                break;
+            case NIL_EXT:
+                break;
+            case LIST_EXT: {
+                int length = readInt();
+                for (int i = 0; i < length; i++) {
+                    skipValue();
+                }
+                skipValue();
+                break;
+            }
+            case SMALL_TUPLE_EXT:
+            case LARGE_TUPLE_EXT: {
+                int arity = tag == SMALL_TUPLE_EXT ? readUnsignedByte() : readInt();
+                for (int i = 0; i < arity; i++) {
+                    skipValue();
+                }
+                break;
+            }
+            case MAP_EXT: {
+                int arity = readInt();
+                for (int i = 0; i < arity * 2; i++) {
+                    skipValue();
+                }
+                break;
+            }
+            default:
+                throw new JSONException("Unsupported ETF tag " + tag + " at " + (pos - 1));
+        }
+    }
+
+    /**
+     * Checks if the next term is <code>nil</code>.
+     *
+     * @return Whether the next term is <code>nil</code> or not.
+     */
+    public boolean isNextNil() {
+        checkAvailable(1);
+        int tag = data[pos] & 0xFF;
+        if (tag != ATOM_EXT && tag != SMALL_ATOM_EXT && tag != ATOM_UTF8_EXT && tag != SMALL_ATOM_UTF8_EXT) {
+            return false;
+        }
+        int start = pos;
+        Object atom = readValue();
+        pos = start;
+        return atom == JSONObject.NULL;
+    }
+
+    /**
+     * Converts the given atom.
+     *
+     * @param atom The name of the atom.
+     * @return The converted atom.
+     */
+    private static Object atom(String atom) {
+        switch (atom) {
+            case "nil":
+            case "null":
+                return JSONObject.NULL;
+            case "true":
+                return Boolean.TRUE;
+            case "false":
+                return Boolean.FALSE;
+            default:
+                return atom;
+        }
+    }
+
+    /**
+     * Reads a tuple.
+     *
+     * @param arity The arity of the tuple.
+     * @return The tuple as json array.
+     */
+    private JSONArray readTuple(int arity) {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < arity; i++) {
+            array.put(readValue());
+        }
+        return array;
+    }
+
+    /**
+     * Reads a big integer. Discord uses them for snowflakes, so they are returned as strings.
+     *
+     * @param length The amount of digits (bytes).
+     * @return The big integer as string.
+     */
+    private String readBig(int length) {
+        boolean negative = readUnsignedByte() != 0;
+        if (length <= 7 || (length == 8 && (data[pos + 7] & 0x80) == 0)) {
+            long value = 0;
+            for (int i = length - 1; i >= 0; i--) {
+                value = (value << 8) | (data[pos + i] & 0xFF);
+            }
+            skip(length);
+            return Long.toString(negative ? -value : value);
+        }
+        byte[] magnitude = new byte[length];
+        for (int i = 0; i < length; i++) {
+            magnitude[length - 1 - i] = data[pos + i]; // little endian -> big endian
+        }
+        skip(length);
+        BigInteger value = new BigInteger(1, magnitude);
+        return (negative ? value.negate() : value).toString();
+    }
+
+    private String readString(int length, Charset charset) {
+        checkAvailable(length);
+        String string = new String(data, pos, length, charset);
+        pos += length;
+        return string;
+    }
+
+    private int readUnsignedByte() {
+        checkAvailable(1);
+        return data[pos++] & 0xFF;
+    }
+
+    private int readUnsignedShort() {
+        checkAvailable(2);
+        int value = ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+        pos += 2;
+        return value;
+    }
+
+    private int readInt() {
+        checkAvailable(4);
+        int value = ((data[pos] & 0xFF) << 24) | ((data[pos + 1] & 0xFF) << 16)
+                | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+        pos += 4;
+        return value;
+    }
+
+    private long readLong() {
+        long high = readInt() & 0xFFFFFFFFL;
+        long low = readInt() & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+
+    private void skip(int length) {
+        checkAvailable(length);
+        pos += length;
+    }
+
+    private void checkAvailable(int length) {
+        if (length < 0 || pos + length > end) {
+            throw new JSONException("Unexpected end of ETF term at " + pos);
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+/**
+ * This class encodes json objects into the Erlang External Term Format (ETF).
+ *
+ * Strings (including keys) are encoded as binaries, <code>null</code> and booleans as atoms, numbers as integers or
+ * floats and json arrays as lists.
+ */
+public class EtfEncoder {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    private EtfEncoder() { }
+
+    /**
+     * Encodes the given packet.
+     *
+     * @param packet The packet to encode.
+     * @return The encoded packet.
+     * @throws JSONException If the packet contains a value which can't be encoded.
+     */
+    public static byte[] encode(JSONObject packet) {
+        EtfEncoder encoder = new EtfEncoder();
+        encoder.out.write(EtfDecoder.VERSION);
+        encoder.writeValue(packet);
+        return encoder.out.toByteArray();
+    }
+
+    /**
+     * Writes the given value.
+     *
+     * @param value The value to write.
+     */
+    private void writeValue(Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            writeAtom("nil");
+        } else if (value instanceof Boolean) {
+            writeAtom(value.toString());
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(UTF_8);
+            out.write(EtfDecoder.BINARY_EXT);
+            writeInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writeLong((Long) value);
+        } else if (value instanceof Number) {
+            out.write(EtfDecoder.NEW_FLOAT_EXT);
+            long bits = Double.doubleToLongBits(((Number) value).doubleValue());
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            if (array.length() == 0) {
+                out.write(EtfDecoder.NIL_EXT);
+                return;
+            }
+            out.write(EtfDecoder.LIST_EXT);
+            writeInt(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                writeValue(array.get(i));
+            }
+            out.write(EtfDecoder.NIL_EXT); // tail
+        } else if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            out.write(EtfDecoder.MAP_EXT);
+            writeInt(object.length());
+            Iterator<?> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = (String) keys.next();
+                writeValue(key);
+                writeValue(object.get(key));
+            }
+        } else if (value instanceof String[]) {
+            writeValue(new JSONArray(value));
+        } else {
+            throw new JSONException("Can't encode " + value.getClass().getName() + " as ETF");
+        }
+    }
+
+    /**
+     * Writes an integer.
+     *
+     * @param value The value to write.
+     */
+    private void writeLong(long value) {
+        if (value >= 0 && value <= 255) {
+            out.write(EtfDecoder.SMALL_INTEGER_EXT);
+            out.write((int) value);
+        } else if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            out.write(EtfDecoder.INTEGER_EXT);
+            writeInt((int) value);
+        } else {
+            out.write(EtfDecoder.SMALL_BIG_EXT);
+            out.write(8);
+            out.write(value < 0 ? 1 : 0);
+            long magnitude = Math.abs(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (magnitude >>> (8 * i)) & 0xFF); // little endian
+            }
+        }
+    }
+
+    /**
+     * Writes an atom.
+     *
+     * @param atom The name of the atom.
+     */
+    private void writeAtom(String atom) {
+        byte[] bytes = atom.getBytes(UTF_8);
+        out.write(EtfDecoder.SMALL_ATOM_UTF8_EXT);
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes a 4 byte big endian int.
+     *
+     * @param value The value to write.
+     */
+    private void writeInt(int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class collects events for batch listeners.
+ *
+ * The collected events are passed to the listeners as soon as the batch size is reached or the batch window is
+ * over, whichever happens first. The window starts with the first event of a batch. Pending batches are also
+ * passed to the listeners if a shard disconnects (see {@link ImplDiscordAPI#flushEventBatchers()}).
+ *
+ * @param <E> The type of the events.
+ */
+public abstract class EventBatcher<E> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(EventBatcher.class);
+
+    protected final ImplDiscordAPI api;
+
+    private List<E> batch = new ArrayList<>();
+    private ScheduledFuture<?> flushTask = null;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     */
+    public EventBatcher(ImplDiscordAPI api) {
+        this.api = api;
+    }
+
+    /**
+     * Adds an event to the current batch.
+     *
+     * @param event The event to add.
+     */
+    public void add(E event) {
+        List<E> events = null;
+        synchronized (this) {
+            batch.add(event);
+            if (batch.size() >= api.getListenerBatchSize()) {
+                events = takeBatch();
+            } else if (flushTask == null) {
+                flushTask = api.getThreadPool().getScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        // the scheduler also sends the heartbeats, so it must never wait for a full listener queue
+                        api.getThreadPool().getExecutorService().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    flush();
+                                } catch (Exception e) {
+                                    logger.warn("An error occurred while flushing a batch of events", e);
+                                }
+                            }
+                        });
+                    }
+                }, api.getListenerBatchWindow(), TimeUnit.MILLISECONDS);
+            }
+        }
+        // submitting may wait for a full listener queue, so it's done without holding the lock
+        submit(events);
+    }
+
+    /**
+     * Passes the current batch to the listeners.
+     */
+    public void flush() {
+        List<E> events;
+        synchronized (this) {
+            events = takeBatch();
+        }
+        submit(events);
+    }
+
+    /**
+     * Takes the current batch and cancels its scheduled flush. Must be called while holding the lock.
+     *
+     * @return The events of the current batch. <code>Null</code> if the batch is empty.
+     */
+    private List<E> takeBatch() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (batch.isEmpty()) {
+            return null;
+        }
+        List<E> events = Collections.unmodifiableList(batch);
+        batch = new ArrayList<>();
+        return events;
+    }
+
+    /**
+     * Submits a batch to the listener executor service.
+     *
+     * @param events The events of the batch. Can be <code>null</code>.
+     */
+    private void submit(final List<E> events) {
+        if (events == null) {
+            return;
+        }
+        api.getListenerExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+                dispatch(events);
+            }
+        });
+    }
+
+    /**
+     * Calls the batch listeners. This method is called by the listener thread.
+     *
+     * @param events The collected events. Never empty!
+     */
+    protected abstract void dispatch(List<E> events);
+
+}
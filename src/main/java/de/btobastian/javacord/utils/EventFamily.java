@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+/**
+ * A family of gateway events the bot can subscribe to.
+ *
+ * Packets of families the bot isn't subscribed to are dropped without parsing their payload.
+ * For {@link #MEMBERS}, {@link #PRESENCES} and {@link #VOICE_STATES} the cache data which is only kept up to date
+ * by these packets is not populated at all. The channels, roles and server data of {@link #CHANNELS},
+ * {@link #ROLES} and {@link #SERVER_UPDATES} are still populated by <code>GUILD_CREATE</code>, but they are never
+ * updated and become stale (see the documentation of these families).
+ * The packets <code>READY</code>, <code>RESUMED</code>, <code>GUILD_CREATE</code> and <code>GUILD_DELETE</code>
+ * are always handled.
+ */
+public enum EventFamily {
+
+    /**
+     * Channel creations, deletions and updates.
+     * If the bot isn't subscribed, the channels of a server are the ones it had when it was created: deleted
+     * channels can still be found by id (e.g. {@link de.btobastian.javacord.DiscordAPI#getChannelById(String)}),
+     * new channels are missing and changed names, topics, positions and permissions are outdated.
+     */
+    CHANNELS("CHANNEL_CREATE", "CHANNEL_DELETE", "CHANNEL_UPDATE"),
+
+    /**
+     * Message creations, edits and deletions.
+     */
+    MESSAGES("MESSAGE_CREATE", "MESSAGE_UPDATE", "MESSAGE_DELETE", "MESSAGE_DELETE_BULK", "MESSAGE_ACK"),
+
+    /**
+     * Added and removed reactions.
+     */
+    REACTIONS("MESSAGE_REACTION_ADD", "MESSAGE_REACTION_REMOVE", "MESSAGE_REACTION_REMOVE_ALL"),
+
+    /**
+     * Users starting to type.
+     */
+    TYPING("TYPING_START"),
+
+    /**
+     * Server updates (name, region, icon, etc.).
+     * If the bot isn't subscribed, the name, region, icon and owner of servers are the ones they had when the
+     * server was created.
+     */
+    SERVER_UPDATES("GUILD_UPDATE"),
+
+    /**
+     * Bans and unbans.
+     */
+    BANS("GUILD_BAN_ADD", "GUILD_BAN_REMOVE"),
+
+    /**
+     * Members joining, leaving or being updated.
+     * If the bot isn't subscribed, the member lists, member roles and nicknames of servers are not cached and
+     * offline members of large servers are not requested.
+     */
+    MEMBERS("GUILD_MEMBER_ADD", "GUILD_MEMBER_REMOVE", "GUILD_MEMBER_UPDATE", "GUILD_MEMBERS_CHUNK"),
+
+    /**
+     * Role creations, deletions and updates.
+     * If the bot isn't subscribed, the roles of a server are the ones it had when it was created: deleted roles
+     * are still returned (including as roles of members), new roles are missing and changed names, colors,
+     * positions and permissions are outdated.
+     */
+    ROLES("GUILD_ROLE_CREATE", "GUILD_ROLE_DELETE", "GUILD_ROLE_UPDATE"),
+
+    /**
+     * Status, game and name changes of users.
+     * If the bot isn't subscribed, the status and game of users are not cached.
+     */
+    PRESENCES("PRESENCE_UPDATE"),
+
+    /**
+     * Users joining, leaving or moving between voice channels.
+     * If the bot isn't subscribed, the connected users of voice channels are not cached.
+     */
+    VOICE_STATES("VOICE_STATE_UPDATE"),
+
+    /**
+     * Settings of the user account (not used by bots).
+     */
+    USER_SETTINGS("USER_GUILD_SETTINGS_UPDATE");
+
+    private final String[] packetTypes;
+
+    /**
+     * Creates a new event family.
+     *
+     * @param packetTypes The packet types of the family.
+     */
+    private EventFamily(String... packetTypes) {
+        this.packetTypes = packetTypes;
+    }
+
+    /**
+     * Gets the packet types which belong to this family.
+     *
+     * @return The packet types.
+     */
+    public String[] getPacketTypes() {
+        return packetTypes.clone();
+    }
+
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single thread executor service with a bounded queue.
+ *
+ * Tasks can be tagged with the type of the event they handle. If the queue is full, the {@link OverflowPolicy} of
+ * the event type decides whether the submitting thread waits or a waiting event of the same type is dropped or
+ * replaced. Untagged tasks always wait.
+ * The worker thread itself never waits, so it can't block itself by submitting new tasks.
+ */
+public class EventQueue extends AbstractExecutorService {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(EventQueue.class);
+
+    private final String id;
+    private final int capacity;
+    private final ThreadPool pool;
+
+    // a doubly linked list, so dropped events can be removed in constant time
+    private Node head = null;
+    private Node tail = null;
+    private int size = 0;
+
+    // the waiting events of every type, oldest first
+    private final Map<String, ArrayDeque<Node>> nodesByType = new HashMap<>();
+    // the latest waiting event of every coalesce key
+    private final Map<String, Node> nodesByKey = new HashMap<>();
+
+    private final Map<String, Long> dropCounts = new HashMap<>();
+    private long totalDropCount = 0;
+
+    private Thread worker = null;
+    private boolean shutdown = false;
+    private boolean terminated = false;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param id The id of the queue.
+     * @param capacity The maximum amount of waiting tasks.
+     * @param pool The thread pool which contains the overflow policies.
+     */
+    public EventQueue(String id, int capacity, ThreadPool pool) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1!");
+        }
+        this.id = id;
+        this.capacity = capacity;
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(null, null, command);
+    }
+
+    /**
+     * Executes the given task.
+     *
+     * @param type The type of the event the task handles. Can be <code>null</code>.
+     * @param key The key of the entity the event concerns, used by {@link OverflowPolicy#COALESCE}.
+     *            Can be <code>null</code>.
+     * @param task The task.
+     * @throws RejectedExecutionException If the queue is shut down or the thread was interrupted while waiting.
+     */
+    public synchronized void execute(String type, String key, Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        while (size >= capacity && Thread.currentThread() != worker) {
+            if (shutdown) {
+                break;
+            }
+            OverflowPolicy policy = type == null ? OverflowPolicy.BLOCK : pool.getOverflowPolicy(type);
+            if (policy == OverflowPolicy.COALESCE && key != null) {
+                Node pending = nodesByKey.get(type + ":" + key);
+                if (pending != null) {
+                    pending.task = task;
+                    countDrop(type);
+                    return;
+                }
+            }
+            if (policy != OverflowPolicy.BLOCK) {
+                ArrayDeque<Node> nodes = nodesByType.get(type);
+                if (nodes != null && !nodes.isEmpty()) {
+                    unlink(nodes.peek());
+                    countDrop(type);
+                    break;
+                }
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in queue " + id);
+            }
+        }
+        if (shutdown) {
+            throw new RejectedExecutionException("Queue " + id + " is shut down");
+        }
+        link(new Node(type, key, task));
+        if (worker == null) {
+            startWorker();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Gets an executor service which tags all tasks with the given event type.
+     *
+     * @param type The type of the event.
+     * @return An executor service which submits to this queue.
+     */
+    public ExecutorService forType(String type) {
+        return new TypedExecutorService(type);
+    }
+
+    /**
+     * Gets the id of the queue.
+     *
+     * @return The id of the queue.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the maximum amount of waiting tasks.
+     *
+     * @return The capacity of the queue.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the amount of waiting tasks.
+     *
+     * @return The amount of waiting tasks.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the amount of events which were dropped or replaced because the queue was full.
+     *
+     * @return The amount of dropped events.
+     */
+    public synchronized long getDropCount() {
+        return totalDropCount;
+    }
+
+    /**
+     * Gets the amount of events of the given type which were dropped or replaced because the queue was full.
+     *
+     * @param type The type of the event.
+     * @return The amount of dropped events.
+     */
+    public synchronized long getDropCount(String type) {
+        Long count = dropCounts.get(type);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (worker == null) {
+            terminated = true;
+        }
+        notifyAll();
+    }
+
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>();
+        while (head != null) {
+            tasks.add(head.task);
+            unlink(head);
+        }
+        shutdown();
+        if (worker != null) {
+            worker.interrupt();
+        }
+        return tasks;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return terminated;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!terminated) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Starts the worker thread.
+     */
+    private void startWorker() {
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (;;) {
+                    Runnable task = take();
+                    if (task == null) {
+                        return;
+                    }
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in queue {}!", id, t);
+                    }
+                }
+            }
+        }, "Javacord - Event Queue - " + id);
+        worker.start();
+    }
+
+    /**
+     * Takes the next task. Waits until there's a task.
+     *
+     * @return The next task. <code>Null</code> if the queue is shut down.
+     */
+    private synchronized Runnable take() {
+        while (head == null) {
+            if (shutdown) {
+                terminated = true;
+                notifyAll();
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException ignored) { }
+        }
+        Node node = head;
+        unlink(node);
+        notifyAll(); // there's space again
+        return node.task;
+    }
+
+    /**
+     * Appends the node to the queue.
+     *
+     * @param node The node to append.
+     */
+    private void link(Node node) {
+        node.prev = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        size++;
+        if (node.type != null) {
+            ArrayDeque<Node> nodes = nodesByType.get(node.type);
+            if (nodes == null) {
+                nodes = new ArrayDeque<>();
+                nodesByType.put(node.type, nodes);
+            }
+            nodes.offer(node);
+            if (node.key != null) {
+                nodesByKey.put(node.type + ":" + node.key, node);
+            }
+        }
+    }
+
+    /**
+     * Removes the node from the queue.
+     * Nodes are removed in the order they were added per type, so the node is always the oldest of its type.
+     *
+     * @param node The node to remove.
+     */
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        size--;
+        if (node.type != null) {
+            nodesByType.get(node.type).poll();
+            if (node.key != null) {
+                String key = node.type + ":" + node.key;
+                if (nodesByKey.get(key) == node) {
+                    nodesByKey.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a dropped event.
+     *
+     * @param type The type of the event.
+     */
+    private void countDrop(String type) {
+        totalDropCount++;
+        Long count = dropCounts.get(type);
+        dropCounts.put(type, count == null ? 1 : count + 1);
+        logger.debug("Queue {} is full. Dropped event of type {}", id, type);
+    }
+
+    /**
+     * A waiting task.
+     */
+    private static class Node {
+
+        private final String type;
+        private final String key;
+        private Runnable task;
+        private Node prev;
+        private Node next;
+
+        private Node(String type, String key, Runnable task) {
+            this.type = type;
+            this.key = key;
+            this.task = task;
+        }
+
+    }
+
+    /**
+     * An executor service which tags all tasks with an event type.
+     */
+    private class TypedExecutorService extends AbstractExecutorService {
+
+        private final String type;
+
+        private TypedExecutorService(String type) {
+            this.type = type;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            EventQueue.this.execute(type, null, command);
+        }
+
+        @Override
+        public void shutdown() {
+            EventQueue.this.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return EventQueue.this.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return EventQueue.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return EventQueue.this.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return EventQueue.this.awaitTermination(timeout, unit);
+        }
+
+    }
+
+}
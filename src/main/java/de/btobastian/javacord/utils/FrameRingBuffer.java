@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.neovisionaries.ws.client.WebSocket;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-producer single-consumer ring buffer for raw websocket frames.
+ *
+ * The websocket reading thread only stores the received frames in preallocated slots. A decoder thread takes them
+ * out in batches and decompresses, parses and handles them. No locks are used: the producer only writes the tail,
+ * the consumer only writes the head. If the buffer is full, the producer waits (which stops reading the socket).
+ */
+public class FrameRingBuffer {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(FrameRingBuffer.class);
+
+    /**
+     * Handles the frames taken out of the buffer.
+     */
+    public interface FrameHandler {
+
+        /**
+         * Handles a frame.
+         *
+         * @param websocket The websocket which received the frame.
+         * @param text The text of a text frame. <code>Null</code> for binary frames.
+         * @param binary The data of a binary frame. <code>Null</code> for text frames.
+         * @throws Exception If something went wrong.
+         */
+        public void onFrame(WebSocket websocket, String text, byte[] binary) throws Exception;
+
+        /**
+         * Called by the decoder thread after the buffer was closed and all remaining frames were handled.
+         */
+        public void onClose();
+
+    }
+
+    private final Frame[] frames;
+    private final int mask;
+
+    // the next slot the consumer reads
+    private final AtomicLong head = new AtomicLong();
+    // the next slot the producer writes
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile Thread consumer = null;
+    private volatile boolean consumerWaiting = false;
+    private volatile boolean closed = false;
+
+    // statistics (each one is only written by one thread)
+    private volatile long producerWaits = 0;
+    private volatile long batches = 0;
+    private volatile long decodeNanos = 0;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param size The minimum amount of frames the buffer can hold. It's rounded up to the next power of two.
+     */
+    public FrameRingBuffer(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The size must be at least 1!");
+        }
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+        frames = new Frame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new Frame();
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Starts the decoder thread.
+     *
+     * @param handler The handler of the frames.
+     * @param threadName The name of the decoder thread.
+     */
+    public void start(final FrameHandler handler, String threadName) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                consume(handler);
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+    }
+
+    /**
+     * Adds a text frame. Must only be called by the producer thread.
+     *
+     * @param websocket The websocket which received the frame.
+     * @param text The text of the frame.
+     */
+    public void publishText(WebSocket websocket, String text) {
+        long position = claim();
+        Frame frame = frames[(int) position & mask];
+        frame.websocket = websocket;
+        frame.text = text;
+        publish(position);
+    }
+
+    /**
+     * Adds a binary frame. Must only be called by the producer thread.
+     *
+     * @param websocket The websocket which received the frame.
+     * @param binary The data of the frame.
+     */
+    public void publishBinary(WebSocket websocket, byte[] binary) {
+        long position = claim();
+        Frame frame = frames[(int) position & mask];
+        frame.websocket = websocket;
+        frame.binary = binary;
+        publish(position);
+    }
+
+    /**
+     * Stops the decoder thread after all remaining frames were handled.
+     */
+    public void close() {
+        closed = true;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Waits until all frames which were added before this method was called are decoded and handled.
+     * Returns immediately if it's called by the decoder thread, because the decoder would wait for itself.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit The time unit of the timeout.
+     * @return Whether all frames were handled or not.
+     */
+    public boolean awaitDecoded(long timeout, TimeUnit unit) {
+        long position = tail.get();
+        if (head.get() >= position) {
+            return true;
+        }
+        if (Thread.currentThread() == consumer) {
+            return false;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (head.get() < position) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(100000);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the amount of frames the buffer can hold.
+     *
+     * @return The capacity of the buffer.
+     */
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    /**
+     * Gets the amount of frames which wait to be decoded.
+     *
+     * @return The amount of waiting frames.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Gets the amount of frames which were added to the buffer.
+     *
+     * @return The amount of added frames.
+     */
+    public long getPublishedFrames() {
+        return tail.get();
+    }
+
+    /**
+     * Gets the amount of frames which were decoded and handled.
+     *
+     * @return The amount of decoded frames.
+     */
+    public long getDecodedFrames() {
+        return head.get();
+    }
+
+    /**
+     * Gets how often the reading thread had to wait, because the buffer was full.
+     *
+     * @return How often the reading thread had to wait.
+     */
+    public long getProducerWaits() {
+        return producerWaits;
+    }
+
+    /**
+     * Gets the amount of batches the decoder thread took out of the buffer.
+     *
+     * @return The amount of batches.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Gets the time the decoder thread spent decoding and handling frames.
+     *
+     * @param unit The time unit of the returned value.
+     * @return The time spent decoding.
+     */
+    public long getDecodeTime(TimeUnit unit) {
+        return unit.convert(decodeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits until there's a free slot.
+     *
+     * @return The position of the free slot.
+     */
+    private long claim() {
+        long position = tail.get();
+        if (position - head.get() >= frames.length) {
+            producerWaits++;
+            int spins = 0;
+            while (position - head.get() >= frames.length) {
+                if (++spins < 100) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(100000);
+                }
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Makes the written slot visible to the consumer.
+     *
+     * @param position The position of the slot.
+     */
+    private void publish(long position) {
+        tail.set(position + 1);
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * The loop of the decoder thread.
+     *
+     * @param handler The handler of the frames.
+     */
+    private void consume(FrameHandler handler) {
+        long position = head.get();
+        for (;;) {
+            long available = tail.get();
+            if (available == position) {
+                if (closed) {
+                    try {
+                        handler.onClose();
+                    } catch (Throwable t) {
+                        logger.warn("An error occurred while closing the decoder", t);
+                    }
+                    return;
+                }
+                consumerWaiting = true;
+                if (tail.get() == position && !closed) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+                }
+                consumerWaiting = false;
+                continue;
+            }
+            long start = System.nanoTime();
+            for (; position < available; position++) {
+                Frame frame = frames[(int) position & mask];
+                try {
+                    handler.onFrame(frame.websocket, frame.text, frame.binary);
+                } catch (Throwable t) {
+                    logger.warn("An error occurred while decoding a frame", t);
+                }
+                frame.websocket = null;
+                frame.text = null;
+                frame.binary = null;
+                // free the slot immediately, so the reading thread doesn't wait for the whole batch
+                head.lazySet(position + 1);
+            }
+            decodeNanos += System.nanoTime() - start;
+            batches++;
+        }
+    }
+
+    /**
+     * A preallocated slot of the buffer.
+     */
+    private static class Frame {
+        private WebSocket websocket;
+        private String text;
+        private byte[] binary;
+    }
+
+}
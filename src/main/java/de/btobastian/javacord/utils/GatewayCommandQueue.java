@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONObject;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outbound command queue of a websocket connection.
+ *
+ * Discord disconnects clients which send more than 120 commands in 60 seconds. This queue makes sure we never
+ * exceed this limit:
+ * <ul>
+ *     <li>Priority commands (heartbeat, identify and resume) are always sent first and have a few slots of the
+ *     budget reserved for them.</li>
+ *     <li>Presence updates are coalesced. Only the latest pending one is sent and they have their own, smaller
+ *     budget.</li>
+ *     <li>All other commands (e.g. requests for guild members) are sent in order as soon as the budget allows it,
+ *     but only after the connection was identified or resumed.</li>
+ * </ul>
+ */
+public class GatewayCommandQueue {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(GatewayCommandQueue.class);
+
+    private static final long WINDOW = 60 * 1000;
+    private static final int COMMANDS_PER_WINDOW = 120;
+    private static final int RESERVED_FOR_PRIORITY = 5;
+    private static final int PRESENCE_UPDATES_PER_WINDOW = 5;
+
+    private final DiscordWebsocketAdapter adapter;
+    private final ScheduledExecutorService scheduler;
+
+    private final ArrayDeque<JSONObject> priorityCommands = new ArrayDeque<>();
+    private final ArrayDeque<JSONObject> commands = new ArrayDeque<>();
+    private JSONObject pendingPresence = null;
+
+    // the send times of the commands in the current window
+    private final ArrayDeque<Long> sent = new ArrayDeque<>();
+    private final ArrayDeque<Long> presencesSent = new ArrayDeque<>();
+
+    private boolean identified = false;
+    private ScheduledFuture<?> drainTask = null;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param adapter The adapter which sends the commands.
+     * @param scheduler The scheduler which is used to send delayed commands.
+     */
+    public GatewayCommandQueue(DiscordWebsocketAdapter adapter, ScheduledExecutorService scheduler) {
+        this.adapter = adapter;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues a command which should be sent as soon as possible (heartbeat, identify, resume).
+     *
+     * @param command The command.
+     */
+    public synchronized void enqueuePriority(JSONObject command) {
+        priorityCommands.offer(command);
+        drain();
+    }
+
+    /**
+     * Queues a presence update. A pending presence update which wasn't sent yet is replaced.
+     *
+     * @param presence The presence update.
+     */
+    public synchronized void enqueuePresence(JSONObject presence) {
+        if (pendingPresence != null) {
+            logger.debug("Replacing pending presence update");
+        }
+        pendingPresence = presence;
+        drain();
+    }
+
+    /**
+     * Queues a command.
+     *
+     * @param command The command.
+     */
+    public synchronized void enqueue(JSONObject command) {
+        commands.offer(command);
+        drain();
+    }
+
+    /**
+     * Must be called when a new connection is established.
+     * Clears the budget of the old connection and pending priority commands, which are only valid for the old
+     * connection. Other commands are kept until the new connection is identified or resumed.
+     */
+    public synchronized void reset() {
+        identified = false;
+        priorityCommands.clear();
+        sent.clear();
+        presencesSent.clear();
+    }
+
+    /**
+     * Must be called when the connection was identified or resumed. Starts sending the non-priority commands.
+     */
+    public synchronized void onIdentified() {
+        identified = true;
+        drain();
+    }
+
+    /**
+     * Gets the amount of commands which wait to be sent.
+     *
+     * @return The amount of commands which wait to be sent.
+     */
+    public synchronized int getQueueSize() {
+        return priorityCommands.size() + commands.size() + (pendingPresence == null ? 0 : 1);
+    }
+
+    /**
+     * Sends as many commands as the budget allows and schedules the next drain if commands are left.
+     */
+    private synchronized void drain() {
+        long now = System.currentTimeMillis();
+        purge(sent, now);
+        purge(presencesSent, now);
+        for (;;) {
+            if (!priorityCommands.isEmpty() && sent.size() < COMMANDS_PER_WINDOW) {
+                send(priorityCommands.poll(), now);
+            } else if (identified && pendingPresence != null
+                    && sent.size() < COMMANDS_PER_WINDOW - RESERVED_FOR_PRIORITY
+                    && presencesSent.size() < PRESENCE_UPDATES_PER_WINDOW) {
+                send(pendingPresence, now);
+                pendingPresence = null;
+                presencesSent.offer(now);
+            } else if (identified && !commands.isEmpty()
+                    && sent.size() < COMMANDS_PER_WINDOW - RESERVED_FOR_PRIORITY) {
+                send(commands.poll(), now);
+            } else {
+                break;
+            }
+        }
+        scheduleDrain(now);
+    }
+
+    /**
+     * Schedules the next drain if there are commands which couldn't be sent because of the budget.
+     *
+     * @param now The current time.
+     */
+    private void scheduleDrain(long now) {
+        if (drainTask != null && !drainTask.isDone()) {
+            return;
+        }
+        boolean waiting = !priorityCommands.isEmpty()
+                || (identified && (!commands.isEmpty() || pendingPresence != null));
+        if (!waiting) {
+            return;
+        }
+        long delay = sent.isEmpty() ? 0 : sent.peek() + WINDOW - now;
+        if (identified && pendingPresence != null && commands.isEmpty() && priorityCommands.isEmpty()
+                && !presencesSent.isEmpty()) {
+            delay = Math.max(delay, presencesSent.peek() + WINDOW - now);
+        }
+        logger.debug("Gateway command budget exhausted. Sending {} more commands in {} ms", getQueueSize(), delay);
+        drainTask = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    synchronized (GatewayCommandQueue.this) {
+                        // this task is running now, so drain() must be able to schedule the next one
+                        drainTask = null;
+                        drain();
+                    }
+                } catch (Exception e) {
+                    logger.warn("An error occurred while sending queued gateway commands", e);
+                }
+            }
+        }, Math.max(delay, 1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends a command.
+     *
+     * @param command The command.
+     * @param now The current time.
+     */
+    private void send(JSONObject command, long now) {
+        sent.offer(now);
+        adapter.writePacket(command);
+    }
+
+    /**
+     * Removes all timestamps which are older than the window.
+     *
+     * @param timestamps The timestamps.
+     * @param now The current time.
+     */
+    private static void purge(ArrayDeque<Long> timestamps, long now) {
+        while (!timestamps.isEmpty() && timestamps.peek() + WINDOW <= now) {
+            timestamps.poll();
+        }
+    }
+
+}
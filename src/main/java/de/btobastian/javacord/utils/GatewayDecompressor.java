@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * This class decompresses binary gateway frames.
+ *
+ * One instance is used for the whole lifetime of a connection. The inflater and the buffers are reused for every
+ * frame, so decompressing a frame only allocates when a buffer has to grow for a larger frame. The decompressed
+ * packet is scanned and parsed directly from the output buffer (see {@link GatewayEnvelope#scan(byte[], int, int)}).
+ * This class is not thread-safe and must only be used by one thread at a time (the websocket reading thread or the
+ * decoder thread if a frame buffer is used).
+ */
+public class GatewayDecompressor {
+
+    /**
+     * Every complete zlib-stream message ends with this suffix (a zlib sync flush).
+     */
+    private static final int ZLIB_SUFFIX = 0x0000FFFF;
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private final Inflater inflater = new Inflater();
+    private final boolean stream;
+
+    private byte[] inputBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int inputLength = 0;
+    private byte[] outputBuffer = new byte[INITIAL_BUFFER_SIZE * 4];
+    private int outputLength = 0;
+
+    private volatile long compressedBytes = 0;
+    private volatile long decompressedBytes = 0;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param stream Whether the connection uses the shared zlib context of <code>compress=zlib-stream</code> or
+     *               every binary frame is a standalone compressed payload.
+     */
+    public GatewayDecompressor(boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Decompresses the given frame.
+     *
+     * @param binary The binary frame.
+     * @return The length of the decompressed utf-8 encoded payload in the {@link #getBuffer() buffer} or
+     *         <code>-1</code> if the frame isn't a complete message yet.
+     * @throws DataFormatException If the compressed data is invalid.
+     */
+    public int decompress(byte[] binary) throws DataFormatException {
+        compressedBytes += binary.length;
+        byte[] input = binary;
+        int length = binary.length;
+        if (stream) {
+            // a message can be split into more than one frame. We have to wait for the suffix.
+            if (inputLength > 0 || !endsWithSuffix(binary, binary.length)) {
+                append(binary);
+                if (!endsWithSuffix(inputBuffer, inputLength)) {
+                    return -1;
+                }
+                input = inputBuffer;
+                length = inputLength;
+            }
+        } else {
+            inflater.reset();
+        }
+
+        inflater.setInput(input, 0, length);
+        inputLength = 0;
+        outputLength = 0;
+        for (;;) {
+            if (outputLength == outputBuffer.length) {
+                outputBuffer = grow(outputBuffer, outputLength);
+            }
+            int count = inflater.inflate(outputBuffer, outputLength, outputBuffer.length - outputLength);
+            outputLength += count;
+            if (stream ? inflater.needsInput() && outputLength < outputBuffer.length : inflater.finished()) {
+                break; // everything was inflated
+            }
+            if (count == 0 && (inflater.needsDictionary() || (!stream && inflater.needsInput()))) {
+                throw new DataFormatException("Incomplete compressed payload");
+            }
+        }
+        decompressedBytes += outputLength;
+        return outputLength;
+    }
+
+    /**
+     * Gets the buffer which contains the last decompressed payload.
+     * The content of the buffer is only valid until the next call of {@link #decompress(byte[])}.
+     *
+     * @return The buffer which contains the last decompressed payload.
+     */
+    public byte[] getBuffer() {
+        return outputBuffer;
+    }
+
+    /**
+     * Resets the zlib context. Must be called whenever a new connection is established.
+     */
+    public void reset() {
+        inflater.reset();
+        inputLength = 0;
+        outputLength = 0;
+    }
+
+    /**
+     * Releases the native resources of the inflater. The instance can't be used anymore after calling this method.
+     */
+    public void close() {
+        inflater.end();
+    }
+
+    /**
+     * Gets the amount of compressed bytes received.
+     *
+     * @return The amount of compressed bytes received.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Gets the amount of bytes after decompression.
+     *
+     * @return The amount of bytes after decompression.
+     */
+    public long getDecompressedBytes() {
+        return decompressedBytes;
+    }
+
+    /**
+     * Gets the compression ratio (decompressed bytes / compressed bytes).
+     *
+     * @return The compression ratio. <code>0</code> if nothing was received yet.
+     */
+    public double getCompressionRatio() {
+        long compressed = compressedBytes;
+        return compressed == 0 ? 0 : (double) decompressedBytes / compressed;
+    }
+
+    /**
+     * Appends the given frame to the input buffer.
+     *
+     * @param binary The frame to append.
+     */
+    private void append(byte[] binary) {
+        if (inputLength + binary.length > inputBuffer.length) {
+            byte[] newBuffer = new byte[Math.max(inputBuffer.length * 2, inputLength + binary.length)];
+            System.arraycopy(inputBuffer, 0, newBuffer, 0, inputLength);
+            inputBuffer = newBuffer;
+        }
+        System.arraycopy(binary, 0, inputBuffer, inputLength, binary.length);
+        inputLength += binary.length;
+    }
+
+    /**
+     * Doubles the size of the given buffer.
+     *
+     * @param buffer The buffer.
+     * @param length The amount of bytes which should be copied.
+     * @return The new buffer.
+     */
+    private static byte[] grow(byte[] buffer, int length) {
+        byte[] newBuffer = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, newBuffer, 0, length);
+        return newBuffer;
+    }
+
+    /**
+     * Checks if the data ends with the zlib suffix.
+     *
+     * @param data The data to check.
+     * @param length The length of the data.
+     * @return Whether the data ends with the zlib suffix or not.
+     */
+    private static boolean endsWithSuffix(byte[] data, int length) {
+        if (length < 4) {
+            return false;
+        }
+        int suffix = ((data[length - 4] & 0xFF) << 24)
+                | ((data[length - 3] & 0xFF) << 16)
+                | ((data[length - 2] & 0xFF) << 8)
+                | (data[length - 1] & 0xFF);
+        return suffix == ZLIB_SUFFIX;
+    }
+
+}
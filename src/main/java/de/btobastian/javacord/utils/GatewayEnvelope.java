@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+/**
+ * The envelope of a gateway packet.
+ *
+ * The envelope is scanned without building a json tree (or decoding the whole etf term). Only <code>op</code>,
+ * <code>s</code> and <code>t</code> are read, the position of the <code>d</code>-object is remembered and it's only
+ * parsed if someone asks for it.
+ * Packets nobody is interested in can be dropped without ever parsing their payload.
+ */
+public class GatewayEnvelope {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // The raw packet. Either a string (text frames), utf-8 encoded json (decompressed binary frames) or an etf term.
+    private final String text;
+    private final byte[] bytes;
+    private final int offset;
+    private final int end;
+    private final boolean etf;
+
+    private int op = -1;
+    private int sequence = -1;
+    private String type = null;
+    private int dataStart = -1;
+    private int dataEnd = -1;
+
+    private JSONObject data = null;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param text The packet as string.
+     * @param bytes The packet as utf-8 encoded bytes or etf term.
+     * @param offset The offset of the packet.
+     * @param end The end (exclusive) of the packet.
+     * @param etf Whether the bytes are an etf term or utf-8 encoded json.
+     */
+    private GatewayEnvelope(String text, byte[] bytes, int offset, int end, boolean etf) {
+        this.text = text;
+        this.bytes = bytes;
+        this.offset = offset;
+        this.end = end;
+        this.etf = etf;
+    }
+
+    /**
+     * Scans the envelope of the given packet.
+     *
+     * @param text The packet.
+     * @return The scanned envelope.
+     * @throws JSONException If the packet is no valid json object.
+     */
+    public static GatewayEnvelope scan(String text) {
+        GatewayEnvelope envelope = new GatewayEnvelope(text, null, 0, text.length(), false);
+        envelope.scan();
+        return envelope;
+    }
+
+    /**
+     * Scans the envelope of the given utf-8 encoded packet.
+     * The array must not be modified as long as the envelope is used.
+     *
+     * @param bytes The utf-8 encoded packet.
+     * @param offset The offset of the packet in the array.
+     * @param length The length of the packet.
+     * @return The scanned envelope.
+     * @throws JSONException If the packet is no valid json object.
+     */
+    public static GatewayEnvelope scan(byte[] bytes, int offset, int length) {
+        GatewayEnvelope envelope = new GatewayEnvelope(null, bytes, offset, offset + length, false);
+        envelope.scan();
+        return envelope;
+    }
+
+    /**
+     * Scans the envelope of the given etf encoded packet.
+     * The array must not be modified as long as the envelope is used.
+     *
+     * @param bytes The etf encoded packet (including the version byte).
+     * @param offset The offset of the packet in the array.
+     * @param length The length of the packet.
+     * @return The scanned envelope.
+     * @throws JSONException If the packet is no valid etf map.
+     */
+    public static GatewayEnvelope scanEtf(byte[] bytes, int offset, int length) {
+        EtfDecoder decoder = EtfDecoder.forTerm(bytes, offset, length);
+        GatewayEnvelope envelope =
+                new GatewayEnvelope(null, decoder.getData(), decoder.getPosition(), decoder.getEnd(), true);
+        int arity = decoder.readMapHeader();
+        for (int i = 0; i < arity; i++) {
+            String key = String.valueOf(decoder.readValue());
+            if (key.equals("d")) {
+                envelope.dataStart = decoder.getPosition();
+                decoder.skipValue();
+                envelope.dataEnd = decoder.getPosition();
+            } else if (key.equals("op")) {
+                envelope.op = ((Number) decoder.readValue()).intValue();
+            } else if (key.equals("s") && !decoder.isNextNil()) {
+                envelope.sequence = ((Number) decoder.readValue()).intValue();
+            } else if (key.equals("t") && !decoder.isNextNil()) {
+                envelope.type = String.valueOf(decoder.readValue());
+            } else {
+                decoder.skipValue();
+            }
+        }
+        return envelope;
+    }
+
+    /**
+     * Gets the op code of the packet.
+     *
+     * @return The op code of the packet.
+     */
+    public int getOp() {
+        return op;
+    }
+
+    /**
+     * Gets the sequence number of the packet.
+     *
+     * @return The sequence number of the packet. <code>-1</code> if the packet has no sequence number.
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the type of the packet.
+     *
+     * @return The type of the packet. <code>Null</code> if the packet has no type.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Checks if the packet has a <code>d</code>-object.
+     *
+     * @return Whether the packet has a <code>d</code>-object or not.
+     */
+    public boolean hasData() {
+        if (dataStart < 0) {
+            return false;
+        }
+        return etf ? (bytes[dataStart] & 0xFF) == EtfDecoder.MAP_EXT : charAt(dataStart) == '{';
+    }
+
+    /**
+     * Gets the <code>d</code>-object of the packet. It's parsed the first time this method is called.
+     *
+     * @return The <code>d</code>-object of the packet.
+     * @throws JSONException If the packet has no <code>d</code>-object.
+     */
+    public JSONObject getData() {
+        if (data == null) {
+            if (!hasData()) {
+                throw new JSONException("JSONObject[\"d\"] is not a JSONObject.");
+            }
+            if (etf) {
+                data = (JSONObject) new EtfDecoder(bytes, dataStart, dataEnd).readValue();
+            } else if (text != null) {
+                data = new JSONObject(text.substring(dataStart, dataEnd));
+            } else {
+                data = new JSONObject(new JSONTokener(new InputStreamReader(
+                        new ByteArrayInputStream(bytes, dataStart, dataEnd - dataStart), UTF_8)));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Scans the packet.
+     */
+    private void scan() {
+        int pos = skipWhitespace(offset);
+        expect(pos++, '{');
+        pos = skipWhitespace(pos);
+        if (charAt(pos) == '}') {
+            return;
+        }
+        for (;;) {
+            expect(pos, '"');
+            int keyEnd = skipString(pos);
+            int keyStart = pos + 1;
+            int keyLength = keyEnd - 1 - keyStart;
+            pos = skipWhitespace(keyEnd);
+            expect(pos++, ':');
+            int valueStart = skipWhitespace(pos);
+            int valueEnd = skipValue(valueStart);
+            if (keyLength == 1) {
+                switch (charAt(keyStart)) {
+                    case 'd':
+                        dataStart = valueStart;
+                        dataEnd = valueEnd;
+                        break;
+                    case 's':
+                        sequence = isNull(valueStart) ? -1 : parseInt(valueStart, valueEnd);
+                        break;
+                    case 't':
+                        type = isNull(valueStart) ? null : parseString(valueStart, valueEnd);
+                        break;
+                    default:
+                        break;
+                }
+            } else if (keyLength == 2 && charAt(keyStart) == 'o' && charAt(keyStart + 1) == 'p') {
+                op = parseInt(valueStart, valueEnd);
+            }
+            pos = skipWhitespace(valueEnd);
+            char c = charAt(pos++);
+            if (c == '}') {
+                return;
+            }
+            if (c != ',') {
+                throw syntaxError("Expected a ',' or '}'", pos - 1);
+            }
+            pos = skipWhitespace(pos);
+        }
+    }
+
+    /**
+     * Skips the value which starts at the given position.
+     *
+     * @param pos The start of the value.
+     * @return The position after the value.
+     */
+    private int skipValue(int pos) {
+        char c = charAt(pos);
+        if (c == '"') {
+            return skipString(pos);
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < end) {
+                c = charAt(pos);
+                if (c == '"') {
+                    pos = skipString(pos);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return pos + 1;
+                    }
+                }
+                pos++;
+            }
+            throw syntaxError("Unterminated object or array", pos);
+        }
+        // number, boolean or null
+        while (pos < end) {
+            c = charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c <= ' ') {
+                return pos;
+            }
+            pos++;
+        }
+        throw syntaxError("Unterminated value", pos);
+    }
+
+    /**
+     * Skips the string which starts at the given position.
+     *
+     * @param pos The position of the opening quote.
+     * @return The position after the closing quote.
+     */
+    private int skipString(int pos) {
+        pos++;
+        while (pos < end) {
+            char c = charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == '"') {
+                return pos;
+            }
+        }
+        throw syntaxError("Unterminated string", pos);
+    }
+
+    /**
+     * Parses the string value in the given range.
+     *
+     * @param start The position of the opening quote.
+     * @param stop The position after the closing quote.
+     * @return The parsed string.
+     */
+    private String parseString(int start, int stop) {
+        if (charAt(start) != '"') {
+            throw syntaxError("Expected a string", start);
+        }
+        StringBuilder builder = new StringBuilder(stop - start - 2);
+        for (int i = start + 1; i < stop - 1; i++) {
+            char c = charAt(i);
+            if (c == '\\' || c > 0x7F) {
+                // event types are plain ascii. Let org.json handle everything else.
+                return new JSONTokener(rawString(start, stop)).nextValue().toString();
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parses the int value in the given range.
+     *
+     * @param start The start of the value.
+     * @param stop The end of the value.
+     * @return The parsed int.
+     */
+    private int parseInt(int start, int stop) {
+        try {
+            return Integer.parseInt(rawString(start, stop));
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected an int", start);
+        }
+    }
+
+    /**
+     * Checks if the value at the given position is <code>null</code>.
+     *
+     * @param pos The start of the value.
+     * @return Whether the value is <code>null</code> or not.
+     */
+    private boolean isNull(int pos) {
+        return charAt(pos) == 'n';
+    }
+
+    /**
+     * Skips all whitespaces.
+     *
+     * @param pos The current position.
+     * @return The position of the next non-whitespace character.
+     */
+    private int skipWhitespace(int pos) {
+        while (pos < end && charAt(pos) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Checks if the character at the given position is the expected one.
+     *
+     * @param pos The position.
+     * @param expected The expected character.
+     */
+    private void expect(int pos, char expected) {
+        if (pos >= end || charAt(pos) != expected) {
+            throw syntaxError("Expected a '" + expected + "'", pos);
+        }
+    }
+
+    /**
+     * Gets the character at the given position.
+     * For utf-8 encoded packets all multi-byte characters are returned as values above 0x7F. This is fine, because
+     * every character which is relevant for the structure of a json object is plain ascii.
+     *
+     * @param pos The position.
+     * @return The character at the given position.
+     */
+    private char charAt(int pos) {
+        if (pos >= end) {
+            throw syntaxError("Unexpected end of packet", pos);
+        }
+        return text != null ? text.charAt(pos) : (char) (bytes[pos] & 0xFF);
+    }
+
+    /**
+     * Gets the given range of the packet as string.
+     *
+     * @param start The start of the range.
+     * @param stop The end (exclusive) of the range.
+     * @return The string.
+     */
+    private String rawString(int start, int stop) {
+        return text != null ? text.substring(start, stop) : new String(bytes, start, stop - start, UTF_8);
+    }
+
+    /**
+     * Creates a new syntax error.
+     *
+     * @param message The message of the error.
+     * @param pos The position of the error.
+     * @return The exception.
+     */
+    private JSONException syntaxError(String message, int pos) {
+        return new JSONException(message + " at " + (pos - offset) + " [packet: " + this + "]");
+    }
+
+    @Override
+    public String toString() {
+        if (etf) {
+            return String.valueOf(new EtfDecoder(bytes, offset, end).readValue());
+        }
+        return rawString(offset, end);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The executor service which calls the listeners.
+ *
+ * By default all listeners are called by the single thread of the <code>listeners</code> queue. If there's more than
+ * one listener lane, the lane is chosen by the partition key of the packet which is currently handled by the
+ * submitting thread (the id of the server or private channel). Listeners of the same server are still called in the
+ * order the packets were received, listeners of different servers may be called in parallel.
+ * Tasks submitted by a listener are executed by the same lane as the listener itself.
+ */
+public class ListenerExecutorService extends AbstractExecutorService {
+
+    // the partition key of the packet or listener the current thread handles
+    private static final ThreadLocal<String> currentKey = new ThreadLocal<>();
+
+    private final ImplDiscordAPI api;
+    private final String type;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param type The type of the event the tasks handle (used for the overflow policy). Can be <code>null</code>.
+     */
+    public ListenerExecutorService(ImplDiscordAPI api, String type) {
+        this.api = api;
+        this.type = type;
+    }
+
+    /**
+     * Sets the partition key of the packet the current thread handles.
+     *
+     * @param key The partition key. <code>Null</code> to remove it.
+     */
+    public static void setCurrentKey(String key) {
+        if (key == null) {
+            currentKey.remove();
+        } else {
+            currentKey.set(key);
+        }
+    }
+
+    /**
+     * Gets the id of the single thread executor service of the given lane.
+     *
+     * @param lane The lane.
+     * @return The id of the executor service.
+     */
+    public static String getLaneId(int lane) {
+        return lane == 0 ? "listeners" : "listeners-" + lane;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        final String key = currentKey.get();
+        int lanes = api.getListenerLanes();
+        if (lanes <= 1 || key == null) {
+            getLane(0).execute(type, null, command);
+            return;
+        }
+        getLane((key.hashCode() & 0x7FFFFFFF) % lanes).execute(type, null, new Runnable() {
+            @Override
+            public void run() {
+                setCurrentKey(key);
+                try {
+                    command.run();
+                } finally {
+                    setCurrentKey(null);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        for (int lane = 0; lane < api.getListenerLanes(); lane++) {
+            getLane(lane).shutdown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int lane = 0; lane < api.getListenerLanes(); lane++) {
+            tasks.addAll(getLane(lane).shutdownNow());
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        for (int lane = 0; lane < api.getListenerLanes(); lane++) {
+            if (!getLane(lane).isShutdown()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        for (int lane = 0; lane < api.getListenerLanes(); lane++) {
+            if (!getLane(lane).isTerminated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int lane = 0; lane < api.getListenerLanes(); lane++) {
+            if (!getLane(lane).awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the queue of the given lane.
+     *
+     * @param lane The lane.
+     * @return The queue of the lane.
+     */
+    private EventQueue getLane(int lane) {
+        return api.getThreadPool().getEventQueue(getLaneId(lane));
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.google.common.reflect.TypeToken;
+import de.btobastian.javacord.listener.Listener;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class contains all registered listeners.
+ *
+ * The listeners of every listener interface are stored in an array of the interface type. The arrays are never
+ * modified: registering or unregistering a listener replaces them with a copy. Dispatching events therefore doesn't
+ * need any lock and can't see a half updated array.
+ *
+ * Listeners can also be registered for a single server, channel or user. These listeners are stored in a separate
+ * registry per id, so dispatching an event only looks at the listeners of the ids the event concerns.
+ */
+public class ListenerRegistry {
+
+    private final ConcurrentHashMap<Class<?>, Listener[]> listeners = new ConcurrentHashMap<>();
+    // the listener interfaces of every listener class
+    private final ConcurrentHashMap<Class<?>, List<Class<?>>> listenerTypes = new ConcurrentHashMap<>();
+
+    // the registries of listeners which are only registered for a single server, channel or user
+    private final ConcurrentHashMap<String, ListenerRegistry> serverListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ListenerRegistry> channelListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ListenerRegistry> userListeners = new ConcurrentHashMap<>();
+    // the listener interfaces which were registered for a server, channel or user at least once
+    private final Set<Class<?>> scopedListenerTypes =
+            Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+    private final Object lock = new Object();
+
+    /**
+     * Registers a listener for all listener interfaces it implements.
+     *
+     * @param listener The listener to register.
+     */
+    public void register(Listener listener) {
+        synchronized (lock) {
+            for (Class<?> type : getListenerTypes(listener.getClass())) {
+                Listener[] oldListeners = getArray(type);
+                Listener[] newListeners = (Listener[]) Array.newInstance(type, oldListeners.length + 1);
+                System.arraycopy(oldListeners, 0, newListeners, 0, oldListeners.length);
+                newListeners[oldListeners.length] = listener;
+                listeners.put(type, newListeners);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener which is only called for events of the server with the given id.
+     *
+     * @param serverId The id of the server.
+     * @param listener The listener to register.
+     */
+    public void registerForServer(String serverId, Listener listener) {
+        // the lock prevents that the registry is removed by unregister(...) at the same time
+        synchronized (lock) {
+            scopedListenerTypes.addAll(getListenerTypes(listener.getClass()));
+            getScopedRegistry(serverListeners, serverId).register(listener);
+        }
+    }
+
+    /**
+     * Registers a listener which is only called for events of the channel with the given id.
+     *
+     * @param channelId The id of the channel.
+     * @param listener The listener to register.
+     */
+    public void registerForChannel(String channelId, Listener listener) {
+        // the lock prevents that the registry is removed by unregister(...) at the same time
+        synchronized (lock) {
+            scopedListenerTypes.addAll(getListenerTypes(listener.getClass()));
+            getScopedRegistry(channelListeners, channelId).register(listener);
+        }
+    }
+
+    /**
+     * Registers a listener which is only called for events caused by the user with the given id.
+     *
+     * @param userId The id of the user.
+     * @param listener The listener to register.
+     */
+    public void registerForUser(String userId, Listener listener) {
+        // the lock prevents that the registry is removed by unregister(...) at the same time
+        synchronized (lock) {
+            scopedListenerTypes.addAll(getListenerTypes(listener.getClass()));
+            getScopedRegistry(userListeners, userId).register(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener.
+     * This also removes the listener from all servers, channels and users it was registered for.
+     *
+     * @param listener The listener to unregister.
+     * @return Whether the listener was registered or not.
+     */
+    public boolean unregister(Listener listener) {
+        boolean removed = false;
+        synchronized (lock) {
+            removed |= unregisterScoped(serverListeners, listener);
+            removed |= unregisterScoped(channelListeners, listener);
+            removed |= unregisterScoped(userListeners, listener);
+            for (Class<?> type : getListenerTypes(listener.getClass())) {
+                Listener[] oldListeners = getArray(type);
+                for (int i = 0; i < oldListeners.length; i++) {
+                    if (oldListeners[i] == listener) {
+                        Listener[] newListeners = (Listener[]) Array.newInstance(type, oldListeners.length - 1);
+                        System.arraycopy(oldListeners, 0, newListeners, 0, i);
+                        System.arraycopy(oldListeners, i + 1, newListeners, i, oldListeners.length - i - 1);
+                        listeners.put(type, newListeners);
+                        removed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Gets all listeners of the given listener interface.
+     * The returned array must not be modified.
+     *
+     * @param listenerClass The listener interface.
+     * @param <T> The listener interface.
+     * @return An array with all listeners of the given interface. Never <code>null</code>!
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Listener> T[] get(Class<T> listenerClass) {
+        return (T[]) getArray(listenerClass);
+    }
+
+    /**
+     * Gets all listeners of the given listener interface which want to receive an event of the given server, channel
+     * and user. These are the listeners which are registered for all events and the listeners which are registered
+     * for one of the given ids.
+     * The returned array must not be modified.
+     *
+     * @param listenerClass The listener interface.
+     * @param serverId The id of the server of the event. Can be <code>null</code>.
+     * @param channelId The id of the channel of the event. Can be <code>null</code>.
+     * @param userId The id of the user who caused the event. Can be <code>null</code>.
+     * @param <T> The listener interface.
+     * @return An array with all matching listeners. Never <code>null</code>!
+     */
+    public <T extends Listener> T[] get(Class<T> listenerClass, String serverId, String channelId, String userId) {
+        T[] result = get(listenerClass);
+        result = merge(result, getScoped(serverListeners, serverId, listenerClass));
+        result = merge(result, getScoped(channelListeners, channelId, listenerClass));
+        result = merge(result, getScoped(userListeners, userId, listenerClass));
+        return result;
+    }
+
+    /**
+     * Checks if there may be listeners of the given listener interface.
+     * This is <code>true</code> if a listener of the interface is registered for all events or if one was registered
+     * for a server, channel or user at any time.
+     *
+     * @param listenerClass The listener interface.
+     * @return Whether there may be listeners of the given interface.
+     */
+    public boolean hasListeners(Class<? extends Listener> listenerClass) {
+        return getArray(listenerClass).length > 0 || scopedListenerTypes.contains(listenerClass);
+    }
+
+    /**
+     * Gets all registered listeners.
+     * This includes the listeners which are only registered for a single server, channel or user.
+     *
+     * @return A list with all registered listeners.
+     */
+    public List<Listener> getAll() {
+        // every listener is registered for the listener interface itself, too
+        Listener[] all = getArray(Listener.class);
+        for (ConcurrentHashMap<String, ListenerRegistry> registries
+                : Arrays.asList(serverListeners, channelListeners, userListeners)) {
+            for (ListenerRegistry registry : registries.values()) {
+                all = merge(all, registry.getArray(Listener.class));
+            }
+        }
+        return Arrays.asList(all);
+    }
+
+    /**
+     * Gets all listeners of the given type.
+     *
+     * @param type The listener interface.
+     * @return An array of the given type with all listeners.
+     */
+    private Listener[] getArray(Class<?> type) {
+        Listener[] typeListeners = listeners.get(type);
+        if (typeListeners == null) {
+            listeners.putIfAbsent(type, (Listener[]) Array.newInstance(type, 0));
+            typeListeners = listeners.get(type);
+        }
+        return typeListeners;
+    }
+
+    /**
+     * Gets the registry for the given id. Creates a new one if there is none.
+     *
+     * @param registries The registries of a scope (servers, channels or users).
+     * @param id The id.
+     * @return The registry of the id.
+     */
+    private ListenerRegistry getScopedRegistry(ConcurrentHashMap<String, ListenerRegistry> registries, String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("The id must not be null!");
+        }
+        ListenerRegistry registry = registries.get(id);
+        if (registry == null) {
+            registries.putIfAbsent(id, new ListenerRegistry());
+            registry = registries.get(id);
+        }
+        return registry;
+    }
+
+    /**
+     * Gets the listeners of the given interface in the registry of the given id.
+     *
+     * @param registries The registries of a scope (servers, channels or users).
+     * @param id The id. Can be <code>null</code>.
+     * @param listenerClass The listener interface.
+     * @param <T> The listener interface.
+     * @return The listeners. <code>Null</code> if there is no registry for the id.
+     */
+    private <T extends Listener> T[] getScoped(
+            ConcurrentHashMap<String, ListenerRegistry> registries, String id, Class<T> listenerClass) {
+        if (id == null) {
+            return null;
+        }
+        ListenerRegistry registry = registries.get(id);
+        return registry == null ? null : registry.get(listenerClass);
+    }
+
+    /**
+     * Removes the listener from all registries of a scope.
+     * Registries which don't contain any listeners afterwards are removed.
+     *
+     * @param registries The registries of a scope (servers, channels or users).
+     * @param listener The listener to remove.
+     * @return Whether the listener was removed from at least one registry.
+     */
+    private boolean unregisterScoped(ConcurrentHashMap<String, ListenerRegistry> registries, Listener listener) {
+        boolean removed = false;
+        for (Map.Entry<String, ListenerRegistry> entry : registries.entrySet()) {
+            if (entry.getValue().unregister(listener)) {
+                removed = true;
+                if (entry.getValue().getArray(Listener.class).length == 0) {
+                    registries.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Merges two listener arrays. Listeners which are in both arrays are only added once.
+     *
+     * @param first The first array.
+     * @param second The second array. Can be <code>null</code>.
+     * @param <T> The type of the listeners.
+     * @return The merged array. One of the given arrays if nothing has to be merged.
+     */
+    private static <T> T[] merge(T[] first, T[] second) {
+        if (second == null || second.length == 0) {
+            return first;
+        }
+        if (first.length == 0) {
+            return second;
+        }
+        T[] merged = Arrays.copyOf(first, first.length + second.length);
+        int size = first.length;
+        outer:
+        for (T listener : second) {
+            for (int i = 0; i < first.length; i++) {
+                if (first[i] == listener) {
+                    continue outer;
+                }
+            }
+            merged[size++] = listener;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * Gets the listener interfaces the given class implements.
+     *
+     * @param listenerClass The class of a listener.
+     * @return The listener interfaces of the class.
+     */
+    private List<Class<?>> getListenerTypes(Class<?> listenerClass) {
+        List<Class<?>> types = listenerTypes.get(listenerClass);
+        if (types == null) {
+            types = new ArrayList<>();
+            for (Class<?> implementedInterface : TypeToken.of(listenerClass).getTypes().interfaces().rawTypes()) {
+                if (Listener.class.isAssignableFrom(implementedInterface)) {
+                    types.add(implementedInterface);
+                }
+            }
+            listenerTypes.put(listenerClass, types);
+        }
+        return types;
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import de.btobastian.javacord.entities.Server;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class requests the members of servers of a connection.
+ *
+ * Requests are collected for a short time and sent as a single request guild members packet with several server
+ * ids. Every server has a future which is completed as soon as the last <code>GUILD_MEMBERS_CHUNK</code> packet of
+ * the server was received. Completed futures are kept until the next session or until the server is removed, so
+ * requesting the members of a server which are already loaded doesn't send a new request.
+ */
+public class MemberRequestScheduler {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(MemberRequestScheduler.class);
+
+    /**
+     * The maximum amount of servers in one request.
+     */
+    private static final int MAX_BATCH_SIZE = 50;
+
+    /**
+     * The time in milliseconds requests are collected before they are sent.
+     */
+    private static final long BATCH_DELAY = 100;
+
+    private final DiscordWebsocketAdapter adapter;
+    private final ScheduledExecutorService scheduler;
+
+    // servers which wait for their members or already received them
+    private final Map<String, SettableFuture<Server>> requestedServers = new HashMap<>();
+    // servers which were not requested yet
+    private final List<String> batch = new ArrayList<>();
+    private ScheduledFuture<?> flushTask = null;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param adapter The adapter which sends the requests.
+     * @param scheduler The scheduler which is used to send the collected requests.
+     */
+    public MemberRequestScheduler(DiscordWebsocketAdapter adapter, ScheduledExecutorService scheduler) {
+        this.adapter = adapter;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Requests all members of the given server.
+     * If the members of the server are already requested or received, no new request is sent.
+     *
+     * @param server The server.
+     * @return A future which is completed as soon as all members of the server were received. Already completed if
+     *         the members were received before.
+     */
+    public synchronized ListenableFuture<Server> request(Server server) {
+        SettableFuture<Server> future = requestedServers.get(server.getId());
+        if (future != null) {
+            return future;
+        }
+        future = SettableFuture.create();
+        requestedServers.put(server.getId(), future);
+        batch.add(server.getId());
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            flush();
+        } else if (flushTask == null) {
+            flushTask = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        flush();
+                    } catch (Exception e) {
+                        logger.warn("An error occurred while requesting guild members", e);
+                    }
+                }
+            }, BATCH_DELAY, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Must be called after the last members of a server were received.
+     *
+     * @param server The server.
+     */
+    public synchronized void onMembersLoaded(Server server) {
+        SettableFuture<Server> future = requestedServers.get(server.getId());
+        if (future == null) {
+            // the chunks were not requested by us, but the members are loaded nevertheless
+            future = SettableFuture.create();
+            requestedServers.put(server.getId(), future);
+        }
+        if (future.set(server)) {
+            logger.debug("Received all members of server {}", server);
+        }
+    }
+
+    /**
+     * Must be called after a server was removed.
+     * If the server is created again, its members are requested again.
+     *
+     * @param server The server.
+     */
+    public synchronized void onServerRemove(Server server) {
+        requestedServers.remove(server.getId());
+        batch.remove(server.getId());
+    }
+
+    /**
+     * Requests the members of all servers again which still wait for their members and forgets the servers which
+     * already received them. Must be called after a new session was started, because the requests of the old
+     * session are lost and the servers are created again.
+     */
+    public synchronized void onNewSession() {
+        batch.clear();
+        Iterator<Map.Entry<String, SettableFuture<Server>>> iterator = requestedServers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, SettableFuture<Server>> entry = iterator.next();
+            if (entry.getValue().isDone()) {
+                iterator.remove();
+            } else {
+                batch.add(entry.getKey());
+            }
+        }
+        while (!batch.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Gets the amount of servers which wait for their members.
+     *
+     * @return The amount of servers which wait for their members.
+     */
+    public synchronized int getPendingServerCount() {
+        int pending = 0;
+        for (SettableFuture<Server> future : requestedServers.values()) {
+            if (!future.isDone()) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Sends a request for the collected servers.
+     */
+    private synchronized void flush() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> serverIds = batch.subList(0, Math.min(batch.size(), MAX_BATCH_SIZE));
+        JSONObject requestGuildMembersPacket = new JSONObject()
+                .put("op", 8)
+                .put("d", new JSONObject()
+                        .put("guild_id", new JSONArray(serverIds))
+                        .put("query", "")
+                        .put("limit", 0));
+        logger.debug("Sending request guild members packet for {} servers", serverIds.size());
+        serverIds.clear();
+        adapter.sendPacket(requestGuildMembersPacket);
+    }
+
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.entities.message.Message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of the latest messages.
+ *
+ * Every cached message is part of two linked lists: one of all messages and one of the messages of its channel,
+ * both in the order they were added. The messages are also indexed by their id. A message is evicted if
+ * <ul>
+ *     <li>its channel contains more than the maximum amount of messages per channel,</li>
+ *     <li>the cache contains more than the maximum amount of messages,</li>
+ *     <li>the estimated size of all messages exceeds the memory budget, or</li>
+ *     <li>it's older than the maximum age.</li>
+ * </ul>
+ * The oldest messages are always at the head of the lists, so eviction never scans the cache. Adding, removing and
+ * looking up a message take constant time regardless of the size of the cache. Lookups don't need any lock.
+ */
+public class MessageCache {
+
+    /**
+     * The estimated size of a message without its content in bytes.
+     */
+    private static final int BASE_MESSAGE_SIZE = 512;
+
+    private final ConcurrentHashMap<String, Entry> entriesById = new ConcurrentHashMap<>();
+    private final Map<String, Channel> channels = new HashMap<>();
+
+    // all cached messages, oldest first
+    private Entry head = null;
+    private Entry tail = null;
+    private int size = 0;
+    private long estimatedSize = 0;
+
+    private volatile int capacity;
+    private volatile int capacityPerChannel = Integer.MAX_VALUE;
+    private volatile long maxAge = 0;
+    private volatile long memoryBudget = 0;
+    private volatile MessageCacheAdmission admission = MessageCacheAdmission.ALL;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param capacity The maximum amount of cached messages.
+     */
+    public MessageCache(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    /**
+     * Adds a message to the cache if the admission accepts it.
+     * If there's already a message with the same id, it's replaced.
+     *
+     * @param message The message to add.
+     * @param channelId The id of the channel of the message.
+     * @param fromHistory Whether the message was requested as part of a message history or not.
+     */
+    public void add(Message message, String channelId, boolean fromHistory) {
+        if (capacity == 0 || capacityPerChannel == 0 || !admission.shouldCache(message, fromHistory)) {
+            return;
+        }
+        Entry entry = new Entry(message, channelId, estimateSize(message));
+        synchronized (this) {
+            Entry oldEntry = entriesById.get(message.getId());
+            if (oldEntry != null) {
+                unlink(oldEntry);
+            }
+            link(entry);
+            Channel channel = entry.channel;
+            while (channel.size > capacityPerChannel) {
+                unlink(channel.head);
+            }
+            trim();
+        }
+    }
+
+    /**
+     * Removes a message from the cache.
+     *
+     * @param message The message to remove.
+     */
+    public synchronized void remove(Message message) {
+        Entry entry = entriesById.get(message.getId());
+        if (entry != null && entry.message == message) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Gets a cached message by its id.
+     *
+     * @param id The id of the message.
+     * @return The message with the given id. <code>Null</code> if the message isn't cached or expired.
+     */
+    public Message get(String id) {
+        Entry entry = entriesById.get(id);
+        if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+            return null;
+        }
+        return entry.message;
+    }
+
+    /**
+     * Gets the amount of cached messages.
+     *
+     * @return The amount of cached messages.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the estimated size of all cached messages.
+     *
+     * @return The estimated size in bytes.
+     */
+    public synchronized long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Gets the maximum amount of cached messages.
+     *
+     * @return The capacity of the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum amount of cached messages.
+     * If the cache contains more messages, the oldest ones are removed.
+     *
+     * @param capacity The new capacity.
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(capacity, 0);
+        trim();
+    }
+
+    /**
+     * Gets the maximum amount of cached messages per channel.
+     *
+     * @return The capacity of every channel.
+     */
+    public int getCapacityPerChannel() {
+        return capacityPerChannel;
+    }
+
+    /**
+     * Sets the maximum amount of cached messages per channel.
+     * Channels which contain more messages lose their oldest messages when the next message of the channel is added.
+     *
+     * @param capacityPerChannel The new capacity of every channel.
+     */
+    public void setCapacityPerChannel(int capacityPerChannel) {
+        this.capacityPerChannel = Math.max(capacityPerChannel, 0);
+    }
+
+    /**
+     * Gets the maximum age of cached messages.
+     *
+     * @param unit The time unit of the returned value.
+     * @return The maximum age. <code>0</code> if there's no limit.
+     */
+    public long getMaxAge(TimeUnit unit) {
+        return unit.convert(maxAge, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sets the maximum age of cached messages. The age is the time since the message was added to the cache.
+     *
+     * @param maxAge The maximum age. <code>0</code> for no limit.
+     * @param unit The time unit of the maximum age.
+     */
+    public synchronized void setMaxAge(long maxAge, TimeUnit unit) {
+        this.maxAge = Math.max(unit.toMillis(maxAge), 0);
+        trim();
+    }
+
+    /**
+     * Gets the maximum estimated size of all cached messages.
+     *
+     * @return The memory budget in bytes. <code>0</code> if there's no limit.
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the maximum estimated size of all cached messages.
+     * If it's exceeded, the oldest messages are removed.
+     *
+     * @param memoryBudget The memory budget in bytes. <code>0</code> for no limit.
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = Math.max(memoryBudget, 0);
+        trim();
+    }
+
+    /**
+     * Gets the admission which decides which messages are cached.
+     *
+     * @return The admission.
+     */
+    public MessageCacheAdmission getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Sets the admission which decides which messages are cached.
+     * Already cached messages are not affected.
+     *
+     * @param admission The admission.
+     */
+    public void setAdmission(MessageCacheAdmission admission) {
+        if (admission == null) {
+            throw new IllegalArgumentException("The admission must not be null!");
+        }
+        this.admission = admission;
+    }
+
+    /**
+     * Removes the oldest messages as long as one of the limits is exceeded.
+     */
+    private void trim() {
+        long now = System.currentTimeMillis();
+        while (head != null && (size > capacity
+                || (memoryBudget > 0 && estimatedSize > memoryBudget)
+                || isExpired(head, now))) {
+            unlink(head);
+        }
+    }
+
+    /**
+     * Checks if the given entry is older than the maximum age.
+     *
+     * @param entry The entry.
+     * @param now The current time in milliseconds.
+     * @return Whether the entry is expired or not.
+     */
+    private boolean isExpired(Entry entry, long now) {
+        long maxAge = this.maxAge;
+        return maxAge > 0 && now - entry.addedAt > maxAge;
+    }
+
+    /**
+     * Appends the entry to the lists and the index.
+     *
+     * @param entry The entry to add.
+     */
+    private void link(Entry entry) {
+        entry.prev = tail;
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+        }
+        tail = entry;
+        size++;
+        estimatedSize += entry.estimatedSize;
+
+        Channel channel = channels.get(entry.channelId);
+        if (channel == null) {
+            channel = new Channel();
+            channels.put(entry.channelId, channel);
+        }
+        entry.channel = channel;
+        entry.channelPrev = channel.tail;
+        if (channel.tail == null) {
+            channel.head = entry;
+        } else {
+            channel.tail.channelNext = entry;
+        }
+        channel.tail = entry;
+        channel.size++;
+
+        entriesById.put(entry.message.getId(), entry);
+    }
+
+    /**
+     * Removes the entry from the lists and the index.
+     *
+     * @param entry The entry to remove.
+     */
+    private void unlink(Entry entry) {
+        if (entry.prev == null) {
+            head = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        size--;
+        estimatedSize -= entry.estimatedSize;
+
+        Channel channel = entry.channel;
+        if (entry.channelPrev == null) {
+            channel.head = entry.channelNext;
+        } else {
+            entry.channelPrev.channelNext = entry.channelNext;
+        }
+        if (entry.channelNext == null) {
+            channel.tail = entry.channelPrev;
+        } else {
+            entry.channelNext.channelPrev = entry.channelPrev;
+        }
+        if (--channel.size == 0) {
+            channels.remove(entry.channelId);
+        }
+
+        entriesById.remove(entry.message.getId(), entry);
+    }
+
+    /**
+     * Estimates the memory a message uses.
+     *
+     * @param message The message.
+     * @return The estimated size in bytes.
+     */
+    private static int estimateSize(Message message) {
+        String content = message.getContent();
+        return BASE_MESSAGE_SIZE + (content == null ? 0 : content.length() * 2);
+    }
+
+    /**
+     * A cached message.
+     */
+    private static class Entry {
+
+        private final Message message;
+        private final String channelId;
+        private final int estimatedSize;
+        private final long addedAt = System.currentTimeMillis();
+
+        private Channel channel;
+        private Entry prev;
+        private Entry next;
+        private Entry channelPrev;
+        private Entry channelNext;
+
+        private Entry(Message message, String channelId, int estimatedSize) {
+            this.message = message;
+            this.channelId = channelId;
+            this.estimatedSize = estimatedSize;
+        }
+
+    }
+
+    /**
+     * The cached messages of a channel, oldest first.
+     */
+    private static class Channel {
+        private Entry head;
+        private Entry tail;
+        private int size;
+    }
+
+}
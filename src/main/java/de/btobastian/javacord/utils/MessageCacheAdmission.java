@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.entities.message.Message;
+
+/**
+ * Decides which messages are added to the message cache.
+ */
+public interface MessageCacheAdmission {
+
+    /**
+     * An admission which caches all messages.
+     */
+    public static final MessageCacheAdmission ALL = new MessageCacheAdmission() {
+        @Override
+        public boolean shouldCache(Message message, boolean fromHistory) {
+            return true;
+        }
+    };
+
+    /**
+     * Checks if the given message should be cached.
+     * This method is called for every new message, so it should be fast.
+     *
+     * @param message The message.
+     * @param fromHistory Whether the message was requested as part of a message history or not.
+     * @return Whether the message should be cached or not.
+     */
+    public boolean shouldCache(Message message, boolean fromHistory);
+
+}
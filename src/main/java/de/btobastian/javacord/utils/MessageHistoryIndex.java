@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.entities.message.impl.ImplMessageHistory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the messages of all message histories.
+ *
+ * The histories are only weakly referenced, so the garbage collector can delete old histories. The ids of the
+ * messages of a deleted history are removed from the index the next time the index is changed.
+ * Looking up a message doesn't need any lock and only looks at the histories which contain the message.
+ */
+public class MessageHistoryIndex {
+
+    private static final HistoryReference[] NO_HISTORIES = new HistoryReference[0];
+
+    // the histories of every message id; the arrays are replaced (not changed) under the lock
+    private final ConcurrentHashMap<String, HistoryReference[]> historiesByMessageId = new ConcurrentHashMap<>();
+    private final ReferenceQueue<ImplMessageHistory> deletedHistories = new ReferenceQueue<>();
+
+    /**
+     * Adds a history to the index.
+     *
+     * @param history The history to add.
+     */
+    public synchronized void add(ImplMessageHistory history) {
+        removeDeletedHistories();
+        List<String> messageIds = new ArrayList<>();
+        for (Message message : history.getMessages()) {
+            messageIds.add(message.getId());
+        }
+        HistoryReference reference = new HistoryReference(history, deletedHistories, messageIds);
+        for (String messageId : messageIds) {
+            HistoryReference[] references = historiesByMessageId.get(messageId);
+            if (references == null) {
+                references = NO_HISTORIES;
+            }
+            references = Arrays.copyOf(references, references.length + 1);
+            references[references.length - 1] = reference;
+            historiesByMessageId.put(messageId, references);
+        }
+    }
+
+    /**
+     * Gets a message of a history by its id.
+     *
+     * @param id The id of the message.
+     * @return The message with the given id. <code>Null</code> if no history contains the message.
+     */
+    public Message getMessageById(String id) {
+        HistoryReference[] references = historiesByMessageId.get(id);
+        if (references == null) {
+            return null;
+        }
+        for (HistoryReference reference : references) {
+            ImplMessageHistory history = reference.get();
+            if (history != null) {
+                Message message = history.getMessageById(id);
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a message from all histories which contain it.
+     *
+     * @param id The id of the message.
+     */
+    public synchronized void removeMessage(String id) {
+        removeDeletedHistories();
+        HistoryReference[] references = historiesByMessageId.remove(id);
+        if (references == null) {
+            return;
+        }
+        for (HistoryReference reference : references) {
+            ImplMessageHistory history = reference.get();
+            if (history != null) {
+                history.removeMessage(id);
+            }
+        }
+    }
+
+    /**
+     * Removes the message ids of histories which were deleted by the garbage collector.
+     */
+    private void removeDeletedHistories() {
+        Reference<? extends ImplMessageHistory> deleted;
+        while ((deleted = deletedHistories.poll()) != null) {
+            HistoryReference reference = (HistoryReference) deleted;
+            for (String messageId : reference.messageIds) {
+                HistoryReference[] references = historiesByMessageId.get(messageId);
+                if (references == null) {
+                    continue;
+                }
+                List<HistoryReference> remaining = new ArrayList<>(Arrays.asList(references));
+                remaining.remove(reference);
+                if (remaining.isEmpty()) {
+                    historiesByMessageId.remove(messageId);
+                } else {
+                    historiesByMessageId.put(messageId, remaining.toArray(NO_HISTORIES));
+                }
+            }
+        }
+    }
+
+    /**
+     * A weak reference to a history which remembers the ids of its messages.
+     */
+    private static class HistoryReference extends WeakReference<ImplMessageHistory> {
+
+        private final List<String> messageIds;
+
+        private HistoryReference(
+                ImplMessageHistory history, ReferenceQueue<ImplMessageHistory> queue, List<String> messageIds) {
+            super(history, queue);
+            this.messageIds = messageIds;
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+/**
+ * Decides what happens with a new event of a given type if an {@link EventQueue} is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The submitting thread waits until there's space in the queue.
+     * For packet handlers this means the websocket isn't read until there's space.
+     */
+    BLOCK,
+
+    /**
+     * The oldest waiting event of the same type is dropped.
+     * If there's no waiting event of the same type, the submitting thread waits.
+     */
+    DROP_OLDEST,
+
+    /**
+     * A waiting event of the same type which concerns the same entity (e.g. the presence of the same user) is
+     * replaced by the new event, keeping its position in the queue.
+     * If there's no such event, the oldest waiting event of the same type is dropped.
+     */
+    COALESCE
+
+}
@@ -19,6 +19,7 @@
 package de.btobastian.javacord.utils;
 
 import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.Channel;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
@@ -37,7 +38,6 @@ public abstract class PacketHandler {
     protected final ImplDiscordAPI api;
     private final String type;
     private final boolean async;
-    private ExecutorService executorService;
     protected final ExecutorService listenerExecutorService;
 
     /**
@@ -51,10 +51,8 @@ public abstract class PacketHandler {
         this.api = api;
         this.async = async;
         this.type = type;
-        if (async) {
-            executorService = api.getThreadPool().getSingleThreadExecutorService("handlers");
-        }
-        listenerExecutorService = api.getThreadPool().getSingleThreadExecutorService("listeners");
+        // listener tasks are tagged with the packet type, so the overflow policy of the type is used
+        listenerExecutorService = new ListenerExecutorService(api, type);
     }
 
     /**
@@ -63,26 +61,150 @@ public abstract class PacketHandler {
      * @param packet The packet (the "d"-object).
      */
     public void handlePacket(final JSONObject packet) {
+        final String partitionKey = api.getPacketHandlerLanes() > 1 || api.getListenerLanes() > 1
+                ? getPartitionKey(packet) : null;
         if (async) {
-            executorService.submit(new Runnable() {
+            String key = api.getThreadPool().getOverflowPolicy(type) == OverflowPolicy.COALESCE
+                    ? getCoalesceKey(packet) : null;
+            getEventQueue(partitionKey).execute(type, key, new Runnable() {
                 @Override
                 public void run() {
-                    try {
-                        handle(packet);
-                    } catch (Exception e) {
-                        logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
-                                getType(), packet.toString(), e);
-                    }
+                    handle(packet, partitionKey);
                 }
             });
         } else {
-            try {
-                handle(packet);
-            } catch (Exception e) {
-                logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
-                        getType(), packet.toString(), e);
+            handle(packet, partitionKey);
+        }
+    }
+
+    /**
+     * Handles the packet and catches all exceptions.
+     * The partition key is visible to the listener executor service while the packet is handled, so the listeners
+     * are called by the lane of the packet.
+     *
+     * @param packet The packet (the "d"-object).
+     * @param partitionKey The partition key of the packet. Can be <code>null</code>.
+     */
+    private void handle(JSONObject packet, String partitionKey) {
+        ListenerExecutorService.setCurrentKey(partitionKey);
+        try {
+            handle(packet);
+        } catch (Exception e) {
+            logger.warn("Couldn't handle packet of type {}. Please contact the developer! (packet: {})",
+                    getType(), packet.toString(), e);
+        } finally {
+            ListenerExecutorService.setCurrentKey(null);
+        }
+    }
+
+    /**
+     * Executes a task on the lane which handles packets with the given partition key, like a packet of this type.
+     * The task is not tagged with the packet type, so it's never dropped by the overflow policy of the type. This
+     * method waits if the queue of the lane is full, so it must not be called by the shared scheduler.
+     *
+     * @param partitionKey The partition key. Can be <code>null</code>.
+     * @param task The task.
+     */
+    protected void executeOnLane(final String partitionKey, final Runnable task) {
+        getEventQueue(partitionKey).execute(null, null, new Runnable() {
+            @Override
+            public void run() {
+                ListenerExecutorService.setCurrentKey(partitionKey);
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.warn("Couldn't handle delayed task of packet type {}. Please contact the developer!",
+                            getType(), e);
+                } finally {
+                    ListenerExecutorService.setCurrentKey(null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the queue (lane) which handles packets with the given partition key.
+     * All packets of the same server (or private channel) are handled by the same lane, so they are handled in the
+     * order they were received. Packets of different servers may be handled in parallel.
+     *
+     * @param partitionKey The partition key of the packet. Can be <code>null</code>.
+     * @return The queue which handles the packet.
+     */
+    private EventQueue getEventQueue(String partitionKey) {
+        int lanes = api.getPacketHandlerLanes();
+        int lane = 0;
+        if (lanes > 1 && partitionKey != null) {
+            lane = (partitionKey.hashCode() & 0x7FFFFFFF) % lanes;
+        }
+        return api.getThreadPool().getEventQueue(getLaneId(lane));
+    }
+
+    /**
+     * Gets the id of the single thread executor service of the given lane.
+     *
+     * @param lane The lane.
+     * @return The id of the executor service.
+     */
+    public static String getLaneId(int lane) {
+        return lane == 0 ? "handlers" : "handlers-" + lane;
+    }
+
+    /**
+     * Gets the key which decides which lane handles the packet.
+     * This is the id of the server or the id of the channel for private channels. Packets without key are handled by
+     * the first lane. This includes packets of channels which are not cached yet.
+     * Handlers of packets which don't contain a <code>guild_id</code> or <code>channel_id</code> field should
+     * override this method.
+     *
+     * @param packet The packet (the "d"-object).
+     * @return The partition key of the packet. Can be <code>null</code>.
+     */
+    protected String getPartitionKey(JSONObject packet) {
+        if (packet.has("guild_id") && !packet.isNull("guild_id")) {
+            return packet.getString("guild_id");
+        }
+        if (packet.has("channel_id") && !packet.isNull("channel_id")) {
+            String channelId = packet.getString("channel_id");
+            if (api.getUserByChannelId(channelId) != null) {
+                return channelId; // private channel
+            }
+            // messages of server channels don't always contain the guild id
+            // this method is called by the websocket thread, so it must not wait for servers which are loaded
+            Channel channel = api.getCachedChannelById(channelId);
+            if (channel != null) {
+                return channel.getServer().getId();
             }
+            String serverId = api.getLoadingServerIdOfChannel(channelId);
+            if (serverId != null) {
+                return serverId;
+            }
+            // the server is unknown, so we must not use a lane which depends on the channel id
+            return null;
         }
+        return null;
+    }
+
+    /**
+     * Gets the key of the entity the packet concerns.
+     * If the packet handler queue is full, a waiting packet with the same key can be replaced (see
+     * {@link OverflowPolicy#COALESCE}).
+     *
+     * @param packet The packet (the "d"-object).
+     * @return The coalesce key of the packet. <code>Null</code> if packets of this type can't be coalesced.
+     */
+    protected String getCoalesceKey(JSONObject packet) {
+        return null;
+    }
+
+    /**
+     * Checks whether received packets of this type have to be handled.
+     * If this method returns <code>false</code> the payload of the packet is not even parsed.
+     * Handlers which don't update the cache and only call listeners should override this method.
+     *
+     * @return Whether the packet has to be handled or not.
+     */
+    public boolean isRequired() {
+        return true;
     }
 
     /**
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class manages the websocket connections (shards) of an api instance.
+ *
+ * Every shard has its own {@link DiscordWebsocketAdapter} and reconnects on its own, but all shards share the
+ * caches and listeners of the api. Discord only allows one identify every 5 seconds, so the identifies of all
+ * shards are spread over time.
+ */
+public class ShardManager {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(ShardManager.class);
+
+    /**
+     * The minimum time between two identify packets (with some tolerance).
+     */
+    private static final long IDENTIFY_INTERVAL = 5500;
+
+    private final ImplDiscordAPI api;
+    private final String gateway;
+    private final DiscordWebsocketAdapter[] shards;
+
+    private final Object identifyLock = new Object();
+    private long lastIdentify = 0;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param gateway The gateway to connect to.
+     * @param totalShards The total amount of shards.
+     */
+    public ShardManager(ImplDiscordAPI api, String gateway, int totalShards) {
+        if (totalShards < 1) {
+            throw new IllegalArgumentException("The total amount of shards must be at least 1!");
+        }
+        this.api = api;
+        this.gateway = gateway;
+        this.shards = new DiscordWebsocketAdapter[totalShards];
+    }
+
+    /**
+     * Connects all shards and waits until they are ready.
+     *
+     * @throws IllegalStateException If a shard could not connect.
+     */
+    public void connectBlocking() {
+        for (int i = 0; i < shards.length; i++) {
+            logger.debug("Connecting shard {} of {}", i, shards.length);
+            // the adapter registers itself before connecting (see #setShard(int, DiscordWebsocketAdapter))
+            new DiscordWebsocketAdapter(api, gateway, this, i);
+        }
+        for (DiscordWebsocketAdapter shard : shards) {
+            try {
+                if (!shard.isReady().get()) {
+                    throw new IllegalStateException(
+                            "Socket of shard " + shard.getShardId() + " closed before ready packet was received!");
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                logger.warn("Something went wrong while connecting. Please contact the developer!", e);
+                throw new IllegalStateException("Could not figure out if ready or not. Please contact the developer!");
+            }
+        }
+    }
+
+    /**
+     * Reserves the next slot for an identify packet and returns how long the shard has to wait for it.
+     * Discord only allows one identify every 5 seconds for all shards. This method never blocks, so it can be
+     * called by the websocket threads.
+     *
+     * @return The time in milliseconds the shard has to wait before it sends the identify packet.
+     */
+    public long reserveIdentify() {
+        synchronized (identifyLock) {
+            long now = System.currentTimeMillis();
+            long identifyTime = Math.max(now, lastIdentify + IDENTIFY_INTERVAL);
+            lastIdentify = identifyTime;
+            return identifyTime - now;
+        }
+    }
+
+    /**
+     * Gets the total amount of shards.
+     *
+     * @return The total amount of shards.
+     */
+    public int getTotalShards() {
+        return shards.length;
+    }
+
+    /**
+     * Gets the shard with the given id.
+     *
+     * @param shardId The id of the shard.
+     * @return The shard with the given id. <code>Null</code> if the shard isn't connected yet.
+     */
+    public DiscordWebsocketAdapter getShard(int shardId) {
+        return shards[shardId];
+    }
+
+    /**
+     * Sets the shard with the given id.
+     *
+     * @param shardId The id of the shard.
+     * @param shard The shard.
+     */
+    void setShard(int shardId, DiscordWebsocketAdapter shard) {
+        shards[shardId] = shard;
+    }
+
+    /**
+     * Gets a list with all shards.
+     *
+     * @return A list with all shards.
+     */
+    public List<DiscordWebsocketAdapter> getShards() {
+        return Collections.unmodifiableList(Arrays.asList(shards));
+    }
+
+    /**
+     * Gets the shard which receives the events of the given server.
+     *
+     * @param serverId The id of the server.
+     * @return The shard of the server.
+     */
+    public DiscordWebsocketAdapter getShardForServer(String serverId) {
+        return shards[getShardId(serverId, shards.length)];
+    }
+
+    /**
+     * Calculates the id of the shard which receives the events of the given server.
+     *
+     * @param serverId The id of the server.
+     * @param totalShards The total amount of shards.
+     * @return The id of the shard.
+     */
+    public static int getShardId(String serverId, int totalShards) {
+        return (int) ((Long.parseLong(serverId) >> 22) % totalShards);
+    }
+
+    /**
+     * Gets the latency of the last heartbeat, averaged over all shards.
+     *
+     * @return The latency in milliseconds. <code>-1</code> if no heartbeat was acknowledged yet.
+     */
+    public long getLatency() {
+        long sum = 0;
+        int count = 0;
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null && shard.getLatency() >= 0) {
+                sum += shard.getLatency();
+                count++;
+            }
+        }
+        return count == 0 ? -1 : sum / count;
+    }
+
+    /**
+     * Gets the average latency of the last heartbeats, averaged over all shards.
+     *
+     * @return The average latency in milliseconds. <code>-1</code> if no heartbeat was acknowledged yet.
+     */
+    public long getAverageLatency() {
+        long sum = 0;
+        int count = 0;
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null && shard.getAverageLatency() >= 0) {
+                sum += shard.getAverageLatency();
+                count++;
+            }
+        }
+        return count == 0 ? -1 : sum / count;
+    }
+
+    /**
+     * Gets the amount of compressed bytes all shards received.
+     *
+     * @return The amount of compressed bytes.
+     */
+    public long getCompressedBytes() {
+        long sum = 0;
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null) {
+                sum += shard.getCompressedBytesReceived();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the amount of bytes all shards received after decompression.
+     *
+     * @return The amount of decompressed bytes.
+     */
+    public long getDecompressedBytes() {
+        long sum = 0;
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null) {
+                sum += shard.getDecompressedBytesReceived();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sends the update status packet on every shard.
+     */
+    public void updateStatus() {
+        for (DiscordWebsocketAdapter shard : shards) {
+            try {
+                if (shard != null && shard.isReady().isDone() && shard.isReady().get()) {
+                    shard.updateStatus();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                logger.warn("Couldn't update status of shard {}", shard.getShardId(), e);
+            }
+        }
+    }
+
+    /**
+     * Disconnects all shards.
+     */
+    public void disconnect() {
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null) {
+                shard.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum reconnect attempts and the reconnect reset interval of every shard.
+     *
+     * @param attempts The maximum reconnect attempts.
+     * @param seconds The reconnect reset interval in seconds.
+     */
+    public void setReconnectRatelimit(int attempts, int seconds) {
+        for (DiscordWebsocketAdapter shard : shards) {
+            if (shard != null) {
+                shard.setReconnectAttempts(attempts);
+                shard.setRatelimitResetIntervalInSeconds(seconds);
+            }
+        }
+    }
+
+}
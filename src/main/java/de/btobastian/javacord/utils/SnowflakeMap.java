@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe map of entities which is keyed by their snowflake id.
+ *
+ * The ids are stored as primitive <code>long</code>s in an open addressing hash table, so there's no key object and
+ * no entry object per entity. Lookups don't need any lock. Changes are made under the lock of the map. A removed
+ * entity leaves its id in the table (with no value) until the table is rebuilt, so a concurrent lookup never misses
+ * an entity which was moved.
+ * The methods which accept the ids as strings are a facade for the <code>long</code> methods.
+ *
+ * @param <V> The type of the entities.
+ */
+public class SnowflakeMap<V> {
+
+    /**
+     * The key of empty slots. Discord never uses <code>0</code> as id.
+     */
+    private static final long EMPTY = 0;
+
+    private static final int MIN_CAPACITY = 8;
+
+    private static final Table EMPTY_TABLE = new Table(1);
+
+    // replaced (not changed) when the table is rebuilt; only changed under the lock of the map
+    private volatile Table table = EMPTY_TABLE;
+    private volatile int size = 0;
+    // slots with a key (entities and removed entities), guarded by the lock of the map
+    private int usedSlots = 0;
+
+    /**
+     * Gets the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The entity with the given id. <code>Null</code> if there's no such entity.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long id) {
+        if (id == EMPTY) {
+            return null;
+        }
+        Table table = this.table;
+        for (int i = table.indexOf(id); ; i = (i + 1) & table.mask) {
+            long key = table.keys.get(i);
+            if (key == id) {
+                return (V) table.values.get(i);
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Gets the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The entity with the given id. <code>Null</code> if there's no such entity or the id is invalid.
+     */
+    public V get(String id) {
+        long key = SnowflakeUtil.parseId(id);
+        return key < 0 ? null : get(key);
+    }
+
+    /**
+     * Checks if the map contains an entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return Whether the map contains an entity with the given id or not.
+     */
+    public boolean containsKey(long id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Checks if the map contains an entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return Whether the map contains an entity with the given id or not.
+     */
+    public boolean containsKey(String id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Adds an entity to the map.
+     *
+     * @param id The id of the entity.
+     * @param value The entity.
+     * @return The entity which was previously mapped to the id. <code>Null</code> if there was none.
+     */
+    public synchronized V put(long id, V value) {
+        return put(id, value, false);
+    }
+
+    /**
+     * Adds an entity to the map.
+     *
+     * @param id The id of the entity.
+     * @param value The entity.
+     * @return The entity which was previously mapped to the id. <code>Null</code> if there was none.
+     */
+    public V put(String id, V value) {
+        return put(toKey(id), value);
+    }
+
+    /**
+     * Adds an entity to the map if there's no entity with the same id yet.
+     *
+     * @param id The id of the entity.
+     * @param value The entity.
+     * @return The entity which is already mapped to the id. <code>Null</code> if the entity was added.
+     */
+    public synchronized V putIfAbsent(long id, V value) {
+        return put(id, value, true);
+    }
+
+    /**
+     * Adds an entity to the map if there's no entity with the same id yet.
+     *
+     * @param id The id of the entity.
+     * @param value The entity.
+     * @return The entity which is already mapped to the id. <code>Null</code> if the entity was added.
+     */
+    public V putIfAbsent(String id, V value) {
+        return putIfAbsent(toKey(id), value);
+    }
+
+    /**
+     * Removes the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The removed entity. <code>Null</code> if there was no entity with the given id.
+     */
+    public synchronized V remove(long id) {
+        return remove(id, null, false);
+    }
+
+    /**
+     * Removes the entity with the given id.
+     *
+     * @param id The id of the entity.
+     * @return The removed entity. <code>Null</code> if there was no entity with the given id.
+     */
+    public V remove(String id) {
+        long key = SnowflakeUtil.parseId(id);
+        return key < 0 ? null : remove(key);
+    }
+
+    /**
+     * Removes the entity with the given id if it's the given entity.
+     *
+     * @param id The id of the entity.
+     * @param value The entity which should be removed.
+     * @return Whether the entity was removed or not.
+     */
+    public synchronized boolean remove(long id, V value) {
+        return value != null && remove(id, value, true) != null;
+    }
+
+    /**
+     * Removes the entity with the given id if it's the given entity.
+     *
+     * @param id The id of the entity.
+     * @param value The entity which should be removed.
+     * @return Whether the entity was removed or not.
+     */
+    public boolean remove(String id, V value) {
+        long key = SnowflakeUtil.parseId(id);
+        return key >= 0 && remove(key, value);
+    }
+
+    /**
+     * Gets a view of all entities of the map.
+     * The view can't be modified. Its iterator never throws a
+     * {@link java.util.ConcurrentModificationException} and may or may not see changes which are made while
+     * iterating.
+     *
+     * @return A view of all entities.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets the amount of entities in the map.
+     *
+     * @return The amount of entities.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map is empty.
+     *
+     * @return Whether the map is empty or not.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an entity. Must be called under the lock of the map.
+     *
+     * @param id The id of the entity.
+     * @param value The entity.
+     * @param onlyIfAbsent Whether an existing entity should be kept or not.
+     * @return The entity which was mapped to the id before.
+     */
+    @SuppressWarnings("unchecked")
+    private V put(long id, V value, boolean onlyIfAbsent) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("0 is not a valid snowflake!");
+        }
+        if (value == null) {
+            throw new NullPointerException("The value must not be null!");
+        }
+        int slot = findSlot(table, id);
+        if (table.keys.get(slot) == id) {
+            V oldValue = (V) table.values.get(slot);
+            if (oldValue == null || !onlyIfAbsent) {
+                table.values.set(slot, value);
+            }
+            if (oldValue == null) {
+                size++;
+            }
+            return oldValue;
+        }
+        if ((usedSlots + 1) * 4L > table.capacity() * 3L) {
+            rebuild(size + 1);
+            slot = findSlot(table, id);
+        }
+        // the value must be visible before the key, because lookups don't lock
+        table.values.set(slot, value);
+        table.keys.set(slot, id);
+        usedSlots++;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes an entity. Must be called under the lock of the map.
+     *
+     * @param id The id of the entity.
+     * @param value The entity which should be removed.
+     * @param onlyValue Whether the entity should only be removed if it's the given entity.
+     * @return The removed entity. <code>Null</code> if no entity was removed.
+     */
+    @SuppressWarnings("unchecked")
+    private V remove(long id, V value, boolean onlyValue) {
+        if (id == EMPTY) {
+            return null;
+        }
+        int slot = findSlot(table, id);
+        if (table.keys.get(slot) != id) {
+            return null;
+        }
+        V oldValue = (V) table.values.get(slot);
+        if (oldValue == null || (onlyValue && !oldValue.equals(value))) {
+            return null;
+        }
+        // the key stays, so lookups still find the entities behind it
+        table.values.set(slot, null);
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Finds the slot of the given id or the empty slot where it would be added.
+     *
+     * @param table The table.
+     * @param id The id.
+     * @return The slot.
+     */
+    private static int findSlot(Table table, long id) {
+        for (int i = table.indexOf(id); ; i = (i + 1) & table.mask) {
+            long key = table.keys.get(i);
+            if (key == id || key == EMPTY) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Copies all entities into a new table without the ids of removed entities.
+     * Must be called under the lock of the map.
+     *
+     * @param expectedSize The amount of entities the new table must be able to hold.
+     */
+    private void rebuild(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        Table oldTable = table;
+        Table newTable = new Table(capacity);
+        int entities = 0;
+        for (int i = 0; i < oldTable.capacity(); i++) {
+            Object value = oldTable.values.get(i);
+            if (value != null) {
+                long id = oldTable.keys.get(i);
+                int slot = findSlot(newTable, id);
+                newTable.values.set(slot, value);
+                newTable.keys.set(slot, id);
+                entities++;
+            }
+        }
+        usedSlots = entities;
+        table = newTable;
+    }
+
+    /**
+     * Converts an id to the key of the map.
+     *
+     * @param id The id.
+     * @return The key.
+     * @throws IllegalArgumentException If the id is not a valid snowflake.
+     */
+    private static long toKey(String id) {
+        long key = SnowflakeUtil.parseId(id);
+        if (key < 0) {
+            throw new IllegalArgumentException("The id " + id + " is not a valid snowflake!");
+        }
+        return key;
+    }
+
+    /**
+     * The hash table. Its size never changes.
+     */
+    private static class Table {
+
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<Object> values;
+        private final int mask;
+
+        /**
+         * Creates a new table.
+         *
+         * @param capacity The amount of slots. Must be a power of two.
+         */
+        private Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        /**
+         * Gets the amount of slots.
+         *
+         * @return The amount of slots.
+         */
+        private int capacity() {
+            return mask + 1;
+        }
+
+        /**
+         * Gets the first slot of the given id.
+         * The low bits of snowflakes are a counter, so the bits are mixed before they are used (murmur3 finalizer).
+         *
+         * @param id The id.
+         * @return The first slot of the id.
+         */
+        private int indexOf(long id) {
+            long hash = id;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return (int) hash & mask;
+        }
+
+    }
+
+    /**
+     * Iterates over the entities of the table which was current when the iterator was created.
+     */
+    private class ValueIterator implements Iterator<V> {
+
+        private final Table table = SnowflakeMap.this.table;
+        private int slot = -1;
+        private Object next = null;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && slot + 1 < table.capacity()) {
+                next = table.values.get(++slot);
+            }
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) next;
+            next = null;
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
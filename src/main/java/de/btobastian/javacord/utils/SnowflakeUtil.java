@@ -23,9 +23,18 @@ public class SnowflakeUtil {
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("The given string is not a number!");
         }
+        return parseDate(timestamp);
+    }
 
+    /**
+     * Parses a (discord) snowflake id to get the creation date.
+     *
+     * @param id The snowflake id.
+     * @return The date when the snowflake was created.
+     */
+    public static Calendar parseDate(long id) {
         // The first 42 bits (of the total 64) are the timestamp
-        timestamp = timestamp >> 22;
+        long timestamp = id >> 22;
         // Discord starts its counter at the first second of 2015
         timestamp += 1420070400000L;
         Date date = new Date(timestamp);
@@ -35,4 +44,30 @@ public class SnowflakeUtil {
         return calendar;
     }
 
+    /**
+     * Parses a (discord) snowflake id to a <code>long</code>.
+     * Unlike {@link Long#parseLong(String)} this method doesn't throw an exception for invalid ids, because lookups
+     * with invalid ids simply don't find anything.
+     *
+     * @param id The snowflake id.
+     * @return The id as <code>long</code>. <code>-1</code> if the id is not a valid snowflake.
+     */
+    public static long parseId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 19) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            if (value < 0) {
+                return -1; // overflow
+            }
+        }
+        return value;
+    }
+
 }
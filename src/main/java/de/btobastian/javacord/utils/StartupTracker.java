@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.Server;
+import de.btobastian.javacord.entities.impl.ImplServer;
+import de.btobastian.javacord.listener.server.ServerLoadListener;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class tracks the servers of a connection which are still loading after the ready packet.
+ *
+ * The ready packet contains the ids of all servers of the connection. The connection is ready as soon as a
+ * <code>GUILD_CREATE</code> packet was received for every server and the members of all large servers were received
+ * (if they were requested), or when the startup timeout is reached.
+ */
+public class StartupTracker {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(StartupTracker.class);
+
+    private final ImplDiscordAPI api;
+    private final SettableFuture<Boolean> ready;
+
+    // servers we didn't receive a GUILD_CREATE packet for
+    private final Set<String> unavailableServers = new HashSet<>();
+    // servers which wait for their members
+    private final Set<String> loadingMembers = new HashSet<>();
+
+    private boolean started = false;
+    private int totalServers = 0;
+    private int loadedServers = 0;
+    private ScheduledFuture<?> timeout = null;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     * @param ready The future which is completed as soon as all servers are loaded.
+     */
+    public StartupTracker(ImplDiscordAPI api, SettableFuture<Boolean> ready) {
+        this.api = api;
+        this.ready = ready;
+    }
+
+    /**
+     * Starts tracking the servers of the given ready packet.
+     * Must be called after the ready packet was handled.
+     *
+     * @param readyPacket The ready packet.
+     */
+    public synchronized void start(JSONObject readyPacket) {
+        JSONArray guilds = readyPacket.getJSONArray("guilds");
+        totalServers = guilds.length();
+        for (int i = 0; i < guilds.length(); i++) {
+            unavailableServers.add(guilds.getJSONObject(i).getString("id"));
+        }
+        for (int i = 0; i < guilds.length(); i++) {
+            JSONObject guild = guilds.getJSONObject(i);
+            if (guild.has("unavailable") && guild.getBoolean("unavailable")) {
+                continue;
+            }
+            // the server was already created by the ready handler
+            Server server = api.getServerById(guild.getString("id"));
+            if (server != null) {
+                onServerCreate(server);
+            }
+        }
+        started = true;
+        logger.debug("Waiting for {} of {} servers to be loaded", totalServers - loadedServers, totalServers);
+        if (checkReady()) {
+            return;
+        }
+        int seconds = api.getStartupTimeout();
+        if (seconds > 0) {
+            timeout = api.getThreadPool().getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    onTimeout();
+                }
+            }, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Must be called after a server of a <code>GUILD_CREATE</code> packet was created.
+     *
+     * @param server The created server.
+     */
+    public synchronized void onServerCreate(final Server server) {
+        if (!unavailableServers.remove(server.getId())) {
+            return; // not a server of the ready packet
+        }
+        if (((ImplServer) server).hasRequestedMembers()) {
+            loadingMembers.add(server.getId());
+            // the callback is called immediately if the members were already received
+            Futures.addCallback((ListenableFuture<Server>) server.requestMembers(), new FutureCallback<Server>() {
+                @Override
+                public void onSuccess(Server loadedServer) {
+                    onMembersLoaded(loadedServer);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    onServerUnavailable(server.getId());
+                }
+            });
+            return;
+        }
+        onServerLoad(server);
+    }
+
+    /**
+     * Must be called after a server was marked as unavailable by discord (outage).
+     * We don't wait for unavailable servers.
+     *
+     * @param serverId The id of the server.
+     */
+    public synchronized void onServerUnavailable(String serverId) {
+        if (unavailableServers.remove(serverId) || loadingMembers.remove(serverId)) {
+            logger.debug("Server {} is unavailable. Not waiting for it any longer", serverId);
+            totalServers--;
+            checkReady();
+        }
+    }
+
+    /**
+     * Called after the last members of a large server were received.
+     *
+     * @param server The server.
+     */
+    private synchronized void onMembersLoaded(Server server) {
+        if (loadingMembers.remove(server.getId())) {
+            onServerLoad(server);
+        }
+    }
+
+    /**
+     * Gets the amount of servers which are not loaded yet.
+     *
+     * @return The amount of servers which are not loaded yet.
+     */
+    public synchronized int getLoadingServerCount() {
+        return unavailableServers.size() + loadingMembers.size();
+    }
+
+    /**
+     * Called when a server is loaded completely.
+     *
+     * @param server The server.
+     */
+    private void onServerLoad(final Server server) {
+        final int loaded = ++loadedServers;
+        final int total = totalServers;
+        logger.debug("Loaded server {} ({}/{})", server, loaded, total);
+        api.getListenerExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+                ServerLoadListener[] listeners = api.getListenerArray(ServerLoadListener.class);
+                for (ServerLoadListener listener : listeners) {
+                    try {
+                        listener.onServerLoad(api, server, loaded, total);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ServerLoadListener!", t);
+                    }
+                }
+            }
+        });
+        checkReady();
+    }
+
+    /**
+     * Completes the ready future if all servers are loaded.
+     *
+     * @return Whether all servers are loaded or not.
+     */
+    private boolean checkReady() {
+        if (!started || !unavailableServers.isEmpty() || !loadingMembers.isEmpty()) {
+            return false;
+        }
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        ready.set(true);
+        return true;
+    }
+
+    /**
+     * Called when the startup timeout is reached.
+     */
+    private synchronized void onTimeout() {
+        if (ready.isDone()) {
+            return;
+        }
+        logger.warn("Not all servers were loaded after {} seconds ({} servers unavailable, {} servers loading "
+                + "members). Continuing anyway.", api.getStartupTimeout(), unavailableServers.size(),
+                loadingMembers.size());
+        unavailableServers.clear();
+        loadingMembers.clear();
+        ready.set(true);
+    }
+
+}
@@ -20,6 +20,7 @@ package de.btobastian.javacord.utils;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.util.concurrent.*;
 
@@ -35,7 +36,12 @@ public class ThreadPool {
 
     private ExecutorService executorService = null;
     private ListeningExecutorService listeningExecutorService = null;
-    private final ConcurrentHashMap<String, ExecutorService> executorServiceSingeThreads = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler = null;
+    private ExecutorService serverLoader = null;
+    private final ConcurrentHashMap<String, EventQueue> executorServiceSingeThreads = new ConcurrentHashMap<>();
+
+    private volatile int eventQueueCapacity = Integer.MAX_VALUE;
+    private final ConcurrentHashMap<String, OverflowPolicy> overflowPolicies = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance of this class.
@@ -44,6 +50,8 @@ public class ThreadPool {
         executorService = new ThreadPoolExecutor(
                 CORE_POOL_SIZE, MAXIMUM_POOL_SIZE, KEEP_ALIVE_TIME, TIME_UNIT, new SynchronousQueue<Runnable>());
         listeningExecutorService = MoreExecutors.listeningDecorator(executorService);
+        overflowPolicies.put("PRESENCE_UPDATE", OverflowPolicy.COALESCE);
+        overflowPolicies.put("TYPING_START", OverflowPolicy.DROP_OLDEST);
     }
 
     /**
@@ -62,14 +70,125 @@ public class ThreadPool {
      * @return The executor service with the given id. Never <code>null</code>!
      */
     public ExecutorService getSingleThreadExecutorService(String id) {
+        return getEventQueue(id);
+    }
+
+    /**
+     * Gets the queue of the single thread executor service with the given id.
+     * The packet handlers use the queues <code>handlers</code> (and <code>handlers-1</code>, <code>handlers-2</code>,
+     * ... if there's more than one packet handler lane), the listeners use the queue <code>listeners</code> (and
+     * <code>listeners-1</code>, ... if there's more than one listener lane).
+     *
+     * @param id The id of the executor service. Will create a new one if the id is used the first time.
+     * @return The queue with the given id. Never <code>null</code>!
+     */
+    public EventQueue getEventQueue(String id) {
+        EventQueue queue = executorServiceSingeThreads.get(id);
+        if (queue != null) {
+            return queue;
+        }
         synchronized (executorServiceSingeThreads) {
-            ExecutorService service = executorServiceSingeThreads.get(id);
-            if (service == null) {
-                service = Executors.newSingleThreadExecutor();
-                executorServiceSingeThreads.put(id, service);
+            queue = executorServiceSingeThreads.get(id);
+            if (queue == null) {
+                queue = new EventQueue(id, eventQueueCapacity, this);
+                executorServiceSingeThreads.put(id, queue);
             }
-            return service;
+            return queue;
+        }
+    }
+
+    /**
+     * Gets the amount of tasks which wait to be executed by the single thread executor service with the given id.
+     *
+     * @param id The id of the executor service.
+     * @return The amount of waiting tasks. <code>0</code> if there's no executor service with the given id.
+     */
+    public int getQueueSize(String id) {
+        EventQueue queue = executorServiceSingeThreads.get(id);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Sets the maximum amount of waiting tasks of every single thread executor service (e.g. the queues of the
+     * packet handlers and listeners).
+     * This only affects executor services which are created after calling this method, so it must be set before
+     * connecting!
+     *
+     * @param capacity The capacity of the queues. Default: {@link Integer#MAX_VALUE} (unbounded)
+     */
+    public void setEventQueueCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be at least 1!");
+        }
+        this.eventQueueCapacity = capacity;
+    }
+
+    /**
+     * Gets the maximum amount of waiting tasks of every single thread executor service.
+     *
+     * @return The capacity of the queues.
+     */
+    public int getEventQueueCapacity() {
+        return eventQueueCapacity;
+    }
+
+    /**
+     * Sets what happens with new events of the given type if a queue is full.
+     * By default <code>PRESENCE_UPDATE</code> events are coalesced, <code>TYPING_START</code> events drop the
+     * oldest waiting event and all other events wait for space in the queue.
+     * Note: Dropping the packets of events which update the cache (like <code>PRESENCE_UPDATE</code>) means the cache
+     * misses these updates.
+     *
+     * @param type The type of the event (e.g. <code>PRESENCE_UPDATE</code>).
+     * @param policy The overflow policy.
+     */
+    public void setOverflowPolicy(String type, OverflowPolicy policy) {
+        overflowPolicies.put(type, policy);
+    }
+
+    /**
+     * Gets what happens with new events of the given type if a queue is full.
+     *
+     * @param type The type of the event.
+     * @return The overflow policy of the type.
+     */
+    public OverflowPolicy getOverflowPolicy(String type) {
+        OverflowPolicy policy = overflowPolicies.get(type);
+        return policy == null ? OverflowPolicy.BLOCK : policy;
+    }
+
+    /**
+     * Gets the scheduler which is used for periodic tasks like the heartbeats of all connections.
+     * The threads of the scheduler are daemon threads.
+     *
+     * @return The scheduler.
+     */
+    public synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Javacord - Scheduler - %d").build());
+        }
+        return scheduler;
+    }
+
+    /**
+     * Gets the bounded executor service which creates the servers on startup.
+     * It has one thread per core. If all threads are busy and the queue is full, the submitting thread creates the
+     * server itself, which slows down the packet handling instead of queuing an unlimited amount of servers.
+     *
+     * @return The executor service which creates the servers on startup.
+     */
+    public synchronized ExecutorService getServerLoaderExecutorService() {
+        if (serverLoader == null) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_TIME, TIME_UNIT,
+                    new LinkedBlockingQueue<Runnable>(threads * 4),
+                    new ThreadFactoryBuilder().setNameFormat("Javacord - Server Loader - %d").build(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            serverLoader = executor;
         }
+        return serverLoader;
     }
 
     /**
@@ -34,8 +34,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the channel create packet.
  */
@@ -55,8 +53,39 @@ public class ChannelCreateHandler extends PacketHandler {
         super(api, true, "CHANNEL_CREATE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        // private channels don't have a guild id
+        return packet.has("guild_id") && !packet.isNull("guild_id")
+                ? packet.getString("guild_id") : packet.getString("id");
+    }
+
+    @Override
+    public void handlePacket(JSONObject packet) {
+        // messages which are received before this packet is handled must use the lane of the server
+        if (packet.has("guild_id") && !packet.isNull("guild_id")) {
+            api.addPendingChannel(packet.getString("id"), packet.getString("guild_id"));
+        }
+        super.handlePacket(packet);
+    }
+
     @Override
     public void handle(JSONObject packet) {
+        try {
+            handleChannel(packet);
+        } finally {
+            if (packet.has("guild_id") && !packet.isNull("guild_id")) {
+                api.removePendingChannel(packet.getString("id"), packet.getString("guild_id"));
+            }
+        }
+    }
+
+    /**
+     * Handles the created channel.
+     *
+     * @param packet The packet (the "d"-object).
+     */
+    private void handleChannel(JSONObject packet) {
         int type = packet.getInt("type");
         switch (type) {
             case 0:
@@ -93,14 +122,12 @@ public class ChannelCreateHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<ChannelCreateListener> listeners = api.getListeners(ChannelCreateListener.class);
-                synchronized (listeners) {
-                    for (ChannelCreateListener listener : listeners) {
-                        try {
-                            listener.onChannelCreate(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ChannelCreateListener!", t);
-                        }
+                ChannelCreateListener[] listeners = api.getListenerArray(ChannelCreateListener.class);
+                for (ChannelCreateListener listener : listeners) {
+                    try {
+                        listener.onChannelCreate(api, channel);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ChannelCreateListener!", t);
                     }
                 }
             }
@@ -121,14 +148,12 @@ public class ChannelCreateHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<VoiceChannelCreateListener> listeners = api.getListeners(VoiceChannelCreateListener.class);
-                synchronized (listeners) {
-                    for (VoiceChannelCreateListener listener : listeners) {
-                        try {
-                            listener.onVoiceChannelCreate(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
-                        }
+                VoiceChannelCreateListener[] listeners = api.getListenerArray(VoiceChannelCreateListener.class);
+                for (VoiceChannelCreateListener listener : listeners) {
+                    try {
+                        listener.onVoiceChannelCreate(api, channel);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in VoiceChannelCreateListener!", t);
                     }
                 }
             }
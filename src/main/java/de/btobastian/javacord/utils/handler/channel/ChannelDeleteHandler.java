@@ -30,8 +30,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the channel delete packet.
  */
@@ -51,6 +49,13 @@ public class ChannelDeleteHandler extends PacketHandler {
         super(api, true, "CHANNEL_DELETE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        // private channels don't have a guild id
+        return packet.has("guild_id") && !packet.isNull("guild_id")
+                ? packet.getString("guild_id") : packet.getString("id");
+    }
+
     @Override
     public void handle(JSONObject packet) {
         int type = packet.getInt("type");
@@ -76,14 +81,12 @@ public class ChannelDeleteHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<ChannelDeleteListener> listeners = api.getListeners(ChannelDeleteListener.class);
-                synchronized (listeners) {
-                    for (ChannelDeleteListener listener : listeners) {
-                        try {
-                            listener.onChannelDelete(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ChannelDeleteListener!", t);
-                        }
+                ChannelDeleteListener[] listeners = api.getListenerArray(ChannelDeleteListener.class);
+                for (ChannelDeleteListener listener : listeners) {
+                    try {
+                        listener.onChannelDelete(api, channel);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ChannelDeleteListener!", t);
                     }
                 }
             }
@@ -105,14 +108,12 @@ public class ChannelDeleteHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<VoiceChannelDeleteListener> listeners = api.getListeners(VoiceChannelDeleteListener.class);
-                synchronized (listeners) {
-                    for (VoiceChannelDeleteListener listener : listeners) {
-                        try {
-                            listener.onVoiceChannelDelete(api, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
-                        }
+                VoiceChannelDeleteListener[] listeners = api.getListenerArray(VoiceChannelDeleteListener.class);
+                for (VoiceChannelDeleteListener listener : listeners) {
+                    try {
+                        listener.onVoiceChannelDelete(api, channel);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in VoiceChannelDeleteListener!", t);
                     }
                 }
             }
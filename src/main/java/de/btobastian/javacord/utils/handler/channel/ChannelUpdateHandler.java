@@ -42,7 +42,6 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 
@@ -65,6 +64,13 @@ public class ChannelUpdateHandler extends PacketHandler {
         super(api, true, "CHANNEL_UPDATE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        // private channels don't have a guild id
+        return packet.has("guild_id") && !packet.isNull("guild_id")
+                ? packet.getString("guild_id") : packet.getString("id");
+    }
+
     @Override
     public void handle(JSONObject packet) {
         int type = packet.getInt("type");
@@ -94,14 +100,12 @@ public class ChannelUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ChannelChangeNameListener> listeners = api.getListeners(ChannelChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangeNameListener listener : listeners) {
-                            try {
-                                listener.onChannelChangeName(api, channel, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
-                            }
+                    ChannelChangeNameListener[] listeners = api.getListenerArray(ChannelChangeNameListener.class);
+                    for (ChannelChangeNameListener listener : listeners) {
+                        try {
+                            listener.onChannelChangeName(api, channel, oldName);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ChannelChangeNameListener!", t);
                         }
                     }
                 }
@@ -118,14 +122,12 @@ public class ChannelUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ChannelChangeTopicListener> listeners = api.getListeners(ChannelChangeTopicListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangeTopicListener listener : listeners) {
-                            try {
-                                listener.onChannelChangeTopic(api, channel, oldTopic);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
-                            }
+                    ChannelChangeTopicListener[] listeners = api.getListenerArray(ChannelChangeTopicListener.class);
+                    for (ChannelChangeTopicListener listener : listeners) {
+                        try {
+                            listener.onChannelChangeTopic(api, channel, oldTopic);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ChannelChangeTopicListener!", t);
                         }
                     }
                 }
@@ -139,15 +141,13 @@ public class ChannelUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ChannelChangePositionListener> listeners =
-                            api.getListeners(ChannelChangePositionListener.class);
-                    synchronized (listeners) {
-                        for (ChannelChangePositionListener listener : listeners) {
-                            try {
-                                listener.onChannelChangePosition(api, channel, oldPosition);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ChannelChangePositionListener!", t);
-                            }
+                    ChannelChangePositionListener[] listeners =
+                            api.getListenerArray(ChannelChangePositionListener.class);
+                    for (ChannelChangePositionListener listener : listeners) {
+                        try {
+                            listener.onChannelChangePosition(api, channel, oldPosition);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ChannelChangePositionListener!", t);
                         }
                     }
                 }
@@ -177,16 +177,14 @@ public class ChannelUpdateHandler extends PacketHandler {
                     listenerExecutorService.submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(UserChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
-                                    }
+                            UserChangeOverwrittenPermissionsListener[] listeners =
+                                    api.getListenerArray(UserChangeOverwrittenPermissionsListener.class);
+                            for (UserChangeOverwrittenPermissionsListener listener : listeners) {
+                                try {
+                                    listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
+                                } catch (Throwable t) {
+                                    logger.warn(
+                                            "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
                                 }
                             }
                         }
@@ -205,16 +203,14 @@ public class ChannelUpdateHandler extends PacketHandler {
                     listenerExecutorService.submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(RoleChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
-                                    }
+                            RoleChangeOverwrittenPermissionsListener[] listeners =
+                                    api.getListenerArray(RoleChangeOverwrittenPermissionsListener.class);
+                            for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
+                                try {
+                                    listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
+                                } catch (Throwable t) {
+                                    logger.warn(
+                                            "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
                                 }
                             }
                         }
@@ -249,15 +245,13 @@ public class ChannelUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<VoiceChannelChangeNameListener> listeners =
-                            api.getListeners(VoiceChannelChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (VoiceChannelChangeNameListener listener : listeners) {
-                            try {
-                                listener.onVoiceChannelChangeName(api, channel, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in VoiceChannelChangeNameListener!", t);
-                            }
+                    VoiceChannelChangeNameListener[] listeners =
+                            api.getListenerArray(VoiceChannelChangeNameListener.class);
+                    for (VoiceChannelChangeNameListener listener : listeners) {
+                        try {
+                            listener.onVoiceChannelChangeName(api, channel, oldName);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in VoiceChannelChangeNameListener!", t);
                         }
                     }
                 }
@@ -271,15 +265,13 @@ public class ChannelUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<VoiceChannelChangePositionListener> listeners =
-                            api.getListeners(VoiceChannelChangePositionListener.class);
-                    synchronized (listeners) {
-                        for (VoiceChannelChangePositionListener listener : listeners) {
-                            try {
-                                listener.onVoiceChannelChangePosition(api, channel, oldPosition);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in VoiceChannelChangePositionListener!", t);
-                            }
+                    VoiceChannelChangePositionListener[] listeners =
+                            api.getListenerArray(VoiceChannelChangePositionListener.class);
+                    for (VoiceChannelChangePositionListener listener : listeners) {
+                        try {
+                            listener.onVoiceChannelChangePosition(api, channel, oldPosition);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in VoiceChannelChangePositionListener!", t);
                         }
                     }
                 }
@@ -309,16 +301,14 @@ public class ChannelUpdateHandler extends PacketHandler {
                     listenerExecutorService.submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(UserChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
-                                    }
+                            UserChangeOverwrittenPermissionsListener[] listeners =
+                                    api.getListenerArray(UserChangeOverwrittenPermissionsListener.class);
+                            for (UserChangeOverwrittenPermissionsListener listener : listeners) {
+                                try {
+                                    listener.onUserChangeOverwrittenPermissions(api, user, channel, oldPermissions);
+                                } catch (Throwable t) {
+                                    logger.warn(
+                                            "Uncaught exception in UserChangeOverwrittenPermissionsListener!", t);
                                 }
                             }
                         }
@@ -337,16 +327,14 @@ public class ChannelUpdateHandler extends PacketHandler {
                     listenerExecutorService.submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<RoleChangeOverwrittenPermissionsListener> listeners =
-                                    api.getListeners(RoleChangeOverwrittenPermissionsListener.class);
-                            synchronized (listeners) {
-                                for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
-                                    try {
-                                     listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
-                                    } catch (Throwable t) {
-                                        logger.warn(
-                                                "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
-                                    }
+                            RoleChangeOverwrittenPermissionsListener[] listeners =
+                                    api.getListenerArray(RoleChangeOverwrittenPermissionsListener.class);
+                            for (RoleChangeOverwrittenPermissionsListener listener : listeners) {
+                                try {
+                                 listener.onRoleChangeOverwrittenPermissions(api, role, channel, oldPermissions);
+                                } catch (Throwable t) {
+                                    logger.warn(
+                                            "Uncaught exception in RoleChangeOverwrittenPermissionsListener!", t);
                                 }
                             }
                         }
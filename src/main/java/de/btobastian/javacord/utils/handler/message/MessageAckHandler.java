@@ -36,6 +36,11 @@ public class MessageAckHandler extends PacketHandler {
         super(api, true, "MESSAGE_ACK");
     }
 
+    @Override
+    public boolean isRequired() {
+        return false; // we don't do anything with this packet
+    }
+
     @Override
     public void handle(JSONObject packet) {
         // NOP
@@ -20,6 +20,7 @@ package de.btobastian.javacord.utils.handler.message;
 
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.listener.message.MessageDeleteBatchListener;
 import de.btobastian.javacord.listener.message.MessageDeleteListener;
 import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
@@ -27,8 +28,6 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the message bulk delete packet.
  */
@@ -60,18 +59,21 @@ public class MessageBulkDeleteHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<MessageDeleteListener> listeners = api.getListeners(MessageDeleteListener.class);
-                    synchronized (listeners) {
-                        for (MessageDeleteListener listener : listeners) {
-                            try {
-                                listener.onMessageDelete(api, message);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in MessageDeleteListener!", t);
-                            }
+                    MessageDeleteListener[] listeners =
+                            api.getListenerArray(MessageDeleteListener.class, message, message.getAuthor());
+                    for (MessageDeleteListener listener : listeners) {
+                        try {
+                            listener.onMessageDelete(api, message);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in MessageDeleteListener!", t);
                         }
                     }
                 }
             });
+            api.publishMessageDelete(message);
+            if (api.getListenerArray(MessageDeleteBatchListener.class).length > 0) {
+                api.getMessageDeleteBatcher().add(message);
+            }
         }
     }
 
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ * 
+ * This file is part of Javacord.
+ * 
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ * 
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils.handler.message;
+
+import de.btobastian.javacord.ImplDiscordAPI;
+import de.btobastian.javacord.entities.message.Message;
+import de.btobastian.javacord.listener.message.MessageCreateBatchListener;
+import de.btobastian.javacord.utils.EventBatcher;
+import de.btobastian.javacord.utils.LoggerUtil;
+import org.slf4j.Logger;
+
+import java.util.List;
+
+/**
+ * Collects the created messages for the {@link MessageCreateBatchListener}s.
+ * There's only one instance per api, so all shards and packet handlers add to the same batches.
+ */
+public class MessageCreateBatcher extends EventBatcher<Message> {
+
+    /**
+     * The logger of this class.
+     */
+    private static final Logger logger = LoggerUtil.getLogger(MessageCreateBatcher.class);
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param api The api.
+     */
+    public MessageCreateBatcher(ImplDiscordAPI api) {
+        super(api);
+    }
+
+    @Override
+    protected void dispatch(List<Message> messages) {
+        MessageCreateBatchListener[] listeners = api.getListenerArray(MessageCreateBatchListener.class);
+        for (MessageCreateBatchListener listener : listeners) {
+            try {
+                listener.onMessageCreateBatch(api, messages);
+            } catch (Throwable t) {
+                logger.warn("Uncaught exception in MessageCreateBatchListener!", t);
+            }
+        }
+    }
+
+}
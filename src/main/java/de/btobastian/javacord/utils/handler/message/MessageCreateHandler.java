@@ -21,14 +21,13 @@ package de.btobastian.javacord.utils.handler.message;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
+import de.btobastian.javacord.listener.message.MessageCreateBatchListener;
 import de.btobastian.javacord.listener.message.MessageCreateListener;
 import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the message create packet.
  */
@@ -59,18 +58,21 @@ public class MessageCreateHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<MessageCreateListener> listeners = api.getListeners(MessageCreateListener.class);
-                synchronized (listeners) {
-                    for (MessageCreateListener listener : listeners) {
-                        try {
-                            listener.onMessageCreate(api, message);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in MessageCreateListener!", t);
-                        }
+                MessageCreateListener[] listeners =
+                        api.getListenerArray(MessageCreateListener.class, message, message.getAuthor());
+                for (MessageCreateListener listener : listeners) {
+                    try {
+                        listener.onMessageCreate(api, message);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in MessageCreateListener!", t);
                     }
                 }
             }
         });
+        api.publishMessageCreate(message);
+        if (api.getListenerArray(MessageCreateBatchListener.class).length > 0) {
+            api.getMessageCreateBatcher().add(message);
+        }
     }
 
 }
@@ -31,7 +31,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -90,14 +89,13 @@ public class MessageReactionAddHandler extends PacketHandler {
                 listenerExecutorService.submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ReactionAddListener> listeners = api.getListeners(ReactionAddListener.class);
-                        synchronized (listeners) {
-                            for (ReactionAddListener listener : listeners) {
-                                try {
-                                    listener.onReactionAdd(api, reactionFinal, user);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ReactionAddListener!", t);
-                                }
+                        ReactionAddListener[] listeners =
+                                api.getListenerArray(ReactionAddListener.class, reactionFinal.getMessage(), user);
+                        for (ReactionAddListener listener : listeners) {
+                            try {
+                                listener.onReactionAdd(api, reactionFinal, user);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ReactionAddListener!", t);
                             }
                         }
                     }
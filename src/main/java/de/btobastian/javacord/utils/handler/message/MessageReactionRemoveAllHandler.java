@@ -67,14 +67,13 @@ public class MessageReactionRemoveAllHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<ReactionRemoveAllListener> listeners = api.getListeners(ReactionRemoveAllListener.class);
-                synchronized (listeners) {
-                    for (ReactionRemoveAllListener listener : listeners) {
-                        try {
-                            listener.onReactionRemoveAll(api, message, reactions);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ReactionRemoveAllListener!", t);
-                        }
+                ReactionRemoveAllListener[] listeners =
+                        api.getListenerArray(ReactionRemoveAllListener.class, message, null);
+                for (ReactionRemoveAllListener listener : listeners) {
+                    try {
+                        listener.onReactionRemoveAll(api, message, reactions);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ReactionRemoveAllListener!", t);
                     }
                 }
             }
@@ -31,8 +31,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the message reaction remove packet.
  */
@@ -89,14 +87,13 @@ public class MessageReactionRemoveHandler extends PacketHandler {
                 listenerExecutorService.submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<ReactionRemoveListener> listeners = api.getListeners(ReactionRemoveListener.class);
-                        synchronized (listeners) {
-                            for (ReactionRemoveListener listener : listeners) {
-                                try {
-                                    listener.onReactionRemove(api, reactionFinal, user);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in ReactionRemoveListener!", t);
-                                }
+                        ReactionRemoveListener[] listeners =
+                                api.getListenerArray(ReactionRemoveListener.class, reactionFinal.getMessage(), user);
+                        for (ReactionRemoveListener listener : listeners) {
+                            try {
+                                listener.onReactionRemove(api, reactionFinal, user);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in ReactionRemoveListener!", t);
                             }
                         }
                     }
@@ -21,13 +21,14 @@ package de.btobastian.javacord.utils.handler.message;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.message.Message;
 import de.btobastian.javacord.entities.message.impl.ImplMessage;
+import de.btobastian.javacord.listener.message.MessageEditBatchListener;
 import de.btobastian.javacord.listener.message.MessageEditListener;
 import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
+import java.util.AbstractMap;
 
 /**
  * Handles the message update packet.
@@ -63,18 +64,21 @@ public class MessageUpdateHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<MessageEditListener> listeners = api.getListeners(MessageEditListener.class);
-                synchronized (listeners) {
-                    for (MessageEditListener listener : listeners) {
-                        try {
-                            listener.onMessageEdit(api, message, oldContent);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in MessageEditListener!", t);
-                        }
+                MessageEditListener[] listeners =
+                        api.getListenerArray(MessageEditListener.class, message, message.getAuthor());
+                for (MessageEditListener listener : listeners) {
+                    try {
+                        listener.onMessageEdit(api, message, oldContent);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in MessageEditListener!", t);
                     }
                 }
             }
         });
+        api.publishMessageEdit(message, oldContent);
+        if (api.getListenerArray(MessageEditBatchListener.class).length > 0) {
+            api.getMessageEditBatcher().add(new AbstractMap.SimpleImmutableEntry<>(message, oldContent));
+        }
     }
 
 }
@@ -20,7 +20,6 @@ package de.btobastian.javacord.utils.handler.message;
 
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Channel;
-import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.User;
 import de.btobastian.javacord.listener.message.TypingStartListener;
 import de.btobastian.javacord.utils.LoggerUtil;
@@ -28,8 +27,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -51,18 +48,16 @@ public class TypingStartHandler extends PacketHandler {
         super(api, true, "TYPING_START");
     }
 
+    @Override
+    public boolean isRequired() {
+        // this packet doesn't affect the cache
+        return api.hasListeners(TypingStartListener.class);
+    }
+
     @Override
     public void handle(JSONObject packet) {
-        Channel channelTemp = null;
-        String channelId = packet.getString("channel_id");
-        Iterator<Server> serverIterator = api.getServers().iterator();
-        while (serverIterator.hasNext()) {
-            channelTemp = serverIterator.next().getChannelById(channelId);
-            if (channelTemp != null) {
-                break;
-            }
-        }
-        final Channel channel = channelTemp;
+        final String channelId = packet.getString("channel_id");
+        final Channel channel = api.getChannelById(channelId);
 
         String userId = packet.getString("user_id");
         final User user;
@@ -74,14 +69,14 @@ public class TypingStartHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<TypingStartListener> listeners = api.getListeners(TypingStartListener.class);
-                synchronized (listeners) {
-                    for (TypingStartListener listener : listeners) {
-                        try {
-                            listener.onTypingStart(api, user, channel);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in TypingStartListener!", t);
-                        }
+                TypingStartListener[] listeners = api.getListenerArray(TypingStartListener.class,
+                        channel == null ? null : channel.getServer().getId(),
+                        channelId, user.getId());
+                for (TypingStartListener listener : listeners) {
+                    try {
+                        listener.onTypingStart(api, user, channel);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in TypingStartListener!", t);
                     }
                 }
             }
@@ -27,8 +27,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild ban add packet.
  */
@@ -56,14 +54,13 @@ public class GuildBanAddHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerMemberBanListener> listeners = api.getListeners(ServerMemberBanListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberBanListener listener : listeners) {
-                            try {
-                                listener.onServerMemberBan(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberBanListener!", t);
-                            }
+                    ServerMemberBanListener[] listeners =
+                            api.getListenerArray(ServerMemberBanListener.class, server.getId(), null, user.getId());
+                    for (ServerMemberBanListener listener : listeners) {
+                        try {
+                            listener.onServerMemberBan(api, user, server);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerMemberBanListener!", t);
                         }
                     }
                 }
@@ -28,8 +28,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild ban remove packet.
  */
@@ -58,14 +56,13 @@ public class GuildBanRemoveHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerMemberUnbanListener> listeners = api.getListeners(ServerMemberUnbanListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberUnbanListener listener : listeners) {
-                            try {
-                                listener.onServerMemberUnban(api, user.getId(), server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
-                            }
+                    ServerMemberUnbanListener[] listeners =
+                            api.getListenerArray(ServerMemberUnbanListener.class, server.getId(), null, user.getId());
+                    for (ServerMemberUnbanListener listener : listeners) {
+                        try {
+                            listener.onServerMemberUnban(api, user.getId(), server);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerMemberUnbanListener!", t);
                         }
                     }
                 }
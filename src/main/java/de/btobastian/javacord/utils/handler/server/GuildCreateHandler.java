@@ -18,17 +18,19 @@
  */
 package de.btobastian.javacord.utils.handler.server;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import de.btobastian.javacord.ImplDiscordAPI;
 import de.btobastian.javacord.entities.Server;
 import de.btobastian.javacord.entities.impl.ImplServer;
 import de.btobastian.javacord.listener.server.ServerJoinListener;
 import de.btobastian.javacord.utils.LoggerUtil;
 import de.btobastian.javacord.utils.PacketHandler;
+import de.btobastian.javacord.utils.StartupTracker;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild create packet.
  */
@@ -48,33 +50,67 @@ public class GuildCreateHandler extends PacketHandler {
         super(api, true, "GUILD_CREATE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        return packet.getString("id");
+    }
+
+    @Override
+    public void handlePacket(JSONObject packet) {
+        // messages which are received before this packet is handled must use the lane of the server
+        if (packet.has("channels")) {
+            JSONArray channels = packet.getJSONArray("channels");
+            for (int i = 0; i < channels.length(); i++) {
+                api.addPendingChannel(channels.getJSONObject(i).getString("id"), packet.getString("id"));
+            }
+        }
+        super.handlePacket(packet);
+    }
+
     @Override
     public void handle(JSONObject packet) {
+        final String id = packet.getString("id");
         if (packet.has("unavailable") && packet.getBoolean("unavailable")) {
+            api.getShardManager().getShardForServer(id).getStartupTracker().onServerUnavailable(id);
             return;
         }
-        String id = packet.getString("id");
-        if (api.getUnavailableServers().contains(id)) {
-            api.getUnavailableServers().remove(id);
-            new ImplServer(packet, api);
+        if (api.getUnavailableServers().remove(id)) {
+            // the server loader forgets the pending channels when the server was created
+            // servers of the ready packet are loaded in parallel
+            final StartupTracker startupTracker = api.getShardManager().getShardForServer(id).getStartupTracker();
+            Futures.addCallback(api.loadServer(packet), new FutureCallback<Server>() {
+                @Override
+                public void onSuccess(Server server) {
+                    startupTracker.onServerCreate(server);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    logger.warn("Couldn't load server {}. Please contact the developer!", id, t);
+                    startupTracker.onServerUnavailable(id);
+                }
+            });
             return;
         }
-        if (api.getServerById(id) != null) {
-            // TODO update information
-            return;
+        final Server server;
+        try {
+            if (api.getServerById(id) != null) {
+                // TODO update information
+                return;
+            }
+            server = new ImplServer(packet, api);
+        } finally {
+            removePendingChannels(packet);
         }
-        final Server server = new ImplServer(packet, api);
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<ServerJoinListener> listeners = api.getListeners(ServerJoinListener.class);
-                synchronized (listeners) {
-                    for (ServerJoinListener listener : listeners) {
-                        try {
-                            listener.onServerJoin(api, server);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ServerJoinListener!", t);
-                        }
+                ServerJoinListener[] listeners = api.getListenerArray(ServerJoinListener.class);
+                for (ServerJoinListener listener : listeners) {
+                    try {
+                        listener.onServerJoin(api, server);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ServerJoinListener!", t);
                     }
                 }
             }
@@ -89,4 +125,18 @@ public class GuildCreateHandler extends PacketHandler {
         });
     }
 
+    /**
+     * Forgets the channels of the server which were remembered when the packet was received.
+     *
+     * @param packet The packet (the "d"-object).
+     */
+    private void removePendingChannels(JSONObject packet) {
+        if (packet.has("channels")) {
+            JSONArray channels = packet.getJSONArray("channels");
+            for (int i = 0; i < channels.length(); i++) {
+                api.removePendingChannel(channels.getJSONObject(i).getString("id"), packet.getString("id"));
+            }
+        }
+    }
+
 }
@@ -26,8 +26,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild delete packet.
  */
@@ -47,24 +45,31 @@ public class GuildDeleteHandler extends PacketHandler {
         super(api, true, "GUILD_DELETE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        return packet.getString("id");
+    }
+
     @Override
     public void handle(JSONObject packet) {
+        if (packet.has("unavailable") && packet.getBoolean("unavailable")) {
+            String id = packet.getString("id");
+            api.getShardManager().getShardForServer(id).getStartupTracker().onServerUnavailable(id);
+        }
         final Server server = api.getServerById(packet.getString("id"));
         if (server == null) {
             return;
         }
-        api.getServerMap().remove(server.getId());
+        api.removeServer(server);
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<ServerLeaveListener> listeners = api.getListeners(ServerLeaveListener.class);
-                synchronized (listeners) {
-                    for (ServerLeaveListener listener : listeners) {
-                        try {
-                            listener.onServerLeave(api, server);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in ServerLeaveListener!", t);
-                        }
+                ServerLeaveListener[] listeners = api.getListenerArray(ServerLeaveListener.class);
+                for (ServerLeaveListener listener : listeners) {
+                    try {
+                        listener.onServerLeave(api, server);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in ServerLeaveListener!", t);
                     }
                 }
             }
@@ -28,8 +28,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild member add packet.
  */
@@ -59,14 +57,13 @@ public class GuildMemberAddHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerMemberAddListener> listeners = api.getListeners(ServerMemberAddListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberAddListener listener : listeners) {
-                            try {
-                                listener.onServerMemberAdd(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberAddListener!", t);
-                            }
+                    ServerMemberAddListener[] listeners =
+                            api.getListenerArray(ServerMemberAddListener.class, server.getId(), null, user.getId());
+                    for (ServerMemberAddListener listener : listeners) {
+                        try {
+                            listener.onServerMemberAdd(api, user, server);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerMemberAddListener!", t);
                         }
                     }
                 }
@@ -28,8 +28,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild member remove packet.
  */
@@ -59,14 +57,13 @@ public class GuildMemberRemoveHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerMemberRemoveListener> listeners = api.getListeners(ServerMemberRemoveListener.class);
-                    synchronized (listeners) {
-                        for (ServerMemberRemoveListener listener : listeners) {
-                            try {
-                                listener.onServerMemberRemove(api, user, server);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
-                            }
+                    ServerMemberRemoveListener[] listeners =
+                            api.getListenerArray(ServerMemberRemoveListener.class, server.getId(), null, user.getId());
+                    for (ServerMemberRemoveListener listener : listeners) {
+                        try {
+                            listener.onServerMemberRemove(api, user, server);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerMemberRemoveListener!", t);
                         }
                     }
                 }
@@ -34,8 +34,6 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild member update packet.
  */
@@ -69,14 +67,13 @@ public class GuildMemberUpdateHandler extends PacketHandler {
                     listenerExecutorService.submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserChangeNicknameListener> listeners = api.getListeners(UserChangeNicknameListener.class);
-                            synchronized (listeners) {
-                                for (UserChangeNicknameListener listener : listeners) {
-                                    try {
-                                        listener.onUserChangeNickname(api, server, user, oldNick);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserChangeNicknameListener!", t);
-                                    }
+                            UserChangeNicknameListener[] listeners =
+                                    api.getListenerArray(UserChangeNicknameListener.class);
+                            for (UserChangeNicknameListener listener : listeners) {
+                                try {
+                                    listener.onUserChangeNickname(api, server, user, oldNick);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in UserChangeNicknameListener!", t);
                                 }
                             }
                         }
@@ -100,19 +97,16 @@ public class GuildMemberUpdateHandler extends PacketHandler {
                         break;
                     }
                 }
-                if (!contains) {
-                    ((ImplRole) role).removeUserNoUpdate(user);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                if (!contains && ((ImplRole) role).removeUserNoUpdate(user)) {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserRoleRemoveListener> listeners = api.getListeners(UserRoleRemoveListener.class);
-                            synchronized (listeners) {
-                                for (UserRoleRemoveListener listener : listeners) {
-                                    try {
-                                        listener.onUserRoleRemove(api, user, role);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserRoleRemoveListenerListener!", t);
-                                    }
+                            UserRoleRemoveListener[] listeners = api.getListenerArray(UserRoleRemoveListener.class);
+                            for (UserRoleRemoveListener listener : listeners) {
+                                try {
+                                    listener.onUserRoleRemove(api, user, role);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in UserRoleRemoveListenerListener!", t);
                                 }
                             }
                         }
@@ -122,19 +116,16 @@ public class GuildMemberUpdateHandler extends PacketHandler {
 
             // iterate throw all roles of the roles array and remove add roles which aren't in the current roles list
             for (final Role role : roles) {
-                if (!user.getRoles(server).contains(role)) {
-                    ((ImplRole) role).addUserNoUpdate(user);
-                    api.getThreadPool().getSingleThreadExecutorService("listeners").submit(new Runnable() {
+                if (role != null && ((ImplRole) role).addUserNoUpdate(user)) {
+                    api.getListenerExecutorService().submit(new Runnable() {
                         @Override
                         public void run() {
-                            List<UserRoleAddListener> listeners = api.getListeners(UserRoleAddListener.class);
-                            synchronized (listeners) {
-                                for (UserRoleAddListener listener : listeners) {
-                                    try {
-                                        listener.onUserRoleAdd(api, user, role);
-                                    } catch (Throwable t) {
-                                        logger.warn("Uncaught exception in UserRoleAddListener!", t);
-                                    }
+                            UserRoleAddListener[] listeners = api.getListenerArray(UserRoleAddListener.class);
+                            for (UserRoleAddListener listener : listeners) {
+                                try {
+                                    listener.onUserRoleAdd(api, user, role);
+                                } catch (Throwable t) {
+                                    logger.warn("Uncaught exception in UserRoleAddListener!", t);
                                 }
                             }
                         }
@@ -54,6 +54,16 @@ public class GuildMembersChunkHandler extends PacketHandler {
         final Server server = api.getServerById(packet.getString("guild_id"));
         if (server != null) {
             ((ImplServer) server).addMembers(packet.getJSONArray("members"));
+            boolean lastChunk;
+            if (packet.has("chunk_index") && packet.has("chunk_count")) {
+                lastChunk = packet.getInt("chunk_index") >= packet.getInt("chunk_count") - 1;
+            } else {
+                lastChunk = server.getMembers().size() >= server.getMemberCount();
+            }
+            if (lastChunk) {
+                api.getShardManager().getShardForServer(server.getId()).getMemberRequestScheduler()
+                        .onMembersLoaded(server);
+            }
         }
     }
 
@@ -30,8 +30,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild update packet.
  */
@@ -51,6 +49,11 @@ public class GuildUpdateHandler extends PacketHandler {
         super(api, true, "GUILD_UPDATE");
     }
 
+    @Override
+    protected String getPartitionKey(JSONObject packet) {
+        return packet.getString("id");
+    }
+
     @Override
     public void handle(JSONObject packet) {
         if (packet.has("unavailable") && packet.getBoolean("unavailable")) {
@@ -65,14 +68,12 @@ public class GuildUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerChangeNameListener> listeners = api.getListeners(ServerChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeNameListener listener : listeners) {
-                            try {
-                                listener.onServerChangeName(api, server, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeNameListener!", t);
-                            }
+                    ServerChangeNameListener[] listeners = api.getListenerArray(ServerChangeNameListener.class);
+                    for (ServerChangeNameListener listener : listeners) {
+                        try {
+                            listener.onServerChangeName(api, server, oldName);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerChangeNameListener!", t);
                         }
                     }
                 }
@@ -86,14 +87,12 @@ public class GuildUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerChangeRegionListener> listeners = api.getListeners(ServerChangeRegionListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeRegionListener listener : listeners) {
-                            try {
-                                listener.onServerChangeRegion(api, server, oldRegion);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeRegionListener!", t);
-                            }
+                    ServerChangeRegionListener[] listeners = api.getListenerArray(ServerChangeRegionListener.class);
+                    for (ServerChangeRegionListener listener : listeners) {
+                        try {
+                            listener.onServerChangeRegion(api, server, oldRegion);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerChangeRegionListener!", t);
                         }
                     }
                 }
@@ -107,14 +106,12 @@ public class GuildUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerChangeOwnerListener> listeners = api.getListeners(ServerChangeOwnerListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeOwnerListener listener : listeners) {
-                            try {
-                                listener.onServerChangeOwner(api, server, oldOwnerId);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeOwnerListener!", t);
-                            }
+                    ServerChangeOwnerListener[] listeners = api.getListenerArray(ServerChangeOwnerListener.class);
+                    for (ServerChangeOwnerListener listener : listeners) {
+                        try {
+                            listener.onServerChangeOwner(api, server, oldOwnerId);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerChangeOwnerListener!", t);
                         }
                     }
                 }
@@ -128,14 +125,12 @@ public class GuildUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerChangeIconListener> listeners = api.getListeners(ServerChangeIconListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeIconListener listener : listeners) {
-                            try {
-                                listener.onServerChangeIcon(api, server, oldIcon);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeIconListener!", t);
-                            }
+                    ServerChangeIconListener[] listeners = api.getListenerArray(ServerChangeIconListener.class);
+                    for (ServerChangeIconListener listener : listeners) {
+                        try {
+                            listener.onServerChangeIcon(api, server, oldIcon);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerChangeIconListener!", t);
                         }
                     }
                 }
@@ -146,14 +141,12 @@ public class GuildUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<ServerChangeIconListener> listeners = api.getListeners(ServerChangeIconListener.class);
-                    synchronized (listeners) {
-                        for (ServerChangeIconListener listener : listeners) {
-                            try {
-                                listener.onServerChangeIcon(api, server, oldIcon);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in ServerChangeIconListener!", t);
-                            }
+                    ServerChangeIconListener[] listeners = api.getListenerArray(ServerChangeIconListener.class);
+                    for (ServerChangeIconListener listener : listeners) {
+                        try {
+                            listener.onServerChangeIcon(api, server, oldIcon);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in ServerChangeIconListener!", t);
                         }
                     }
                 }
@@ -29,8 +29,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild role create packet.
  */
@@ -61,14 +59,12 @@ public class GuildRoleCreateHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<RoleCreateListener> listeners = api.getListeners(RoleCreateListener.class);
-                synchronized (listeners) {
-                    for (RoleCreateListener listener : listeners) {
-                        try {
-                            listener.onRoleCreate(api, role);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in RoleCreateListener!", t);
-                        }
+                RoleCreateListener[] listeners = api.getListenerArray(RoleCreateListener.class);
+                for (RoleCreateListener listener : listeners) {
+                    try {
+                        listener.onRoleCreate(api, role);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in RoleCreateListener!", t);
                     }
                 }
             }
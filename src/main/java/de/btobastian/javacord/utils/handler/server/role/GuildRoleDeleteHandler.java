@@ -28,8 +28,6 @@ import de.btobastian.javacord.utils.PacketHandler;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
-import java.util.List;
-
 /**
  * Handles the guild role delete packet.
  */
@@ -66,14 +64,12 @@ public class GuildRoleDeleteHandler extends PacketHandler {
         listenerExecutorService.submit(new Runnable() {
             @Override
             public void run() {
-                List<RoleDeleteListener> listeners = api.getListeners(RoleDeleteListener.class);
-                synchronized (listeners) {
-                    for (RoleDeleteListener listener : listeners) {
-                        try {
-                            listener.onRoleDelete(api, role);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in RoleDeleteListener!", t);
-                        }
+                RoleDeleteListener[] listeners = api.getListenerArray(RoleDeleteListener.class);
+                for (RoleDeleteListener listener : listeners) {
+                    try {
+                        listener.onRoleDelete(api, role);
+                    } catch (Throwable t) {
+                        logger.warn("Uncaught exception in RoleDeleteListener!", t);
                     }
                 }
             }
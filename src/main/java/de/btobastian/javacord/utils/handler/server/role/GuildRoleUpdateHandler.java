@@ -31,7 +31,6 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 
 import java.awt.*;
-import java.util.List;
 
 /**
  * Handles the guild role update packet.
@@ -67,14 +66,12 @@ public class GuildRoleUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<RoleChangeNameListener> listeners = api.getListeners(RoleChangeNameListener.class);
-                    synchronized (listeners) {
-                        for (RoleChangeNameListener listener : listeners) {
-                            try {
-                                listener.onRoleChangeName(api, role, oldName);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in RoleChangeNameListener!", t);
-                            }
+                    RoleChangeNameListener[] listeners = api.getListenerArray(RoleChangeNameListener.class);
+                    for (RoleChangeNameListener listener : listeners) {
+                        try {
+                            listener.onRoleChangeName(api, role, oldName);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in RoleChangeNameListener!", t);
                         }
                     }
                 }
@@ -88,15 +85,13 @@ public class GuildRoleUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<RoleChangePermissionsListener> listeners =
-                            api.getListeners(RoleChangePermissionsListener.class);
-                    synchronized (listeners) {
-                        for (RoleChangePermissionsListener listener : listeners) {
-                            try {
-                                listener.onRoleChangePermissions(api, role, oldPermissions);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in RoleChangePermissionsListener!", t);
-                            }
+                    RoleChangePermissionsListener[] listeners =
+                            api.getListenerArray(RoleChangePermissionsListener.class);
+                    for (RoleChangePermissionsListener listener : listeners) {
+                        try {
+                            listener.onRoleChangePermissions(api, role, oldPermissions);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in RoleChangePermissionsListener!", t);
                         }
                     }
                 }
@@ -110,14 +105,12 @@ public class GuildRoleUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<RoleChangeColorListener> listeners = api.getListeners(RoleChangeColorListener.class);
-                    synchronized (listeners) {
-                        for (RoleChangeColorListener listener : listeners) {
-                            try {
-                                listener.onRoleChangeColor(api, role, oldColor);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in RoleChangeColorListener!", t);
-                            }
+                    RoleChangeColorListener[] listeners = api.getListenerArray(RoleChangeColorListener.class);
+                    for (RoleChangeColorListener listener : listeners) {
+                        try {
+                            listener.onRoleChangeColor(api, role, oldColor);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in RoleChangeColorListener!", t);
                         }
                     }
                 }
@@ -129,14 +122,12 @@ public class GuildRoleUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<RoleChangeHoistListener> listeners = api.getListeners(RoleChangeHoistListener.class);
-                    synchronized (listeners) {
-                        for (RoleChangeHoistListener listener : listeners) {
-                            try {
-                                listener.onRoleChangeHoist(api, role, !role.getHoist());
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in RoleChangeHoistListener!", t);
-                            }
+                    RoleChangeHoistListener[] listeners = api.getListenerArray(RoleChangeHoistListener.class);
+                    for (RoleChangeHoistListener listener : listeners) {
+                        try {
+                            listener.onRoleChangeHoist(api, role, !role.getHoist());
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in RoleChangeHoistListener!", t);
                         }
                     }
                 }
@@ -151,14 +142,12 @@ public class GuildRoleUpdateHandler extends PacketHandler {
                 listenerExecutorService.submit(new Runnable() {
                     @Override
                     public void run() {
-                        List<RoleChangePositionListener> listeners = api.getListeners(RoleChangePositionListener.class);
-                        synchronized (listeners) {
-                            for (RoleChangePositionListener listener : listeners) {
-                                try {
-                                    listener.onRoleChangePosition(api, role, oldPosition);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in RoleChangePositionListener!", t);
-                                }
+                        RoleChangePositionListener[] listeners = api.getListenerArray(RoleChangePositionListener.class);
+                        for (RoleChangePositionListener listener : listeners) {
+                            try {
+                                listener.onRoleChangePosition(api, role, oldPosition);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in RoleChangePositionListener!", t);
                             }
                         }
                     }
@@ -34,7 +34,12 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles the presence update packet.
@@ -46,6 +51,10 @@ public class PresenceUpdateHandler extends PacketHandler {
      */
     private static final Logger logger = LoggerUtil.getLogger(PresenceUpdateHandler.class);
 
+    // the latest presence of every user and partition key during the current coalescing window
+    private final Map<String, PendingPresence> pendingPresences = new LinkedHashMap<>();
+    private ScheduledFuture<?> flushTask = null;
+
     /**
      * Creates a new instance of this class.
      *
@@ -55,6 +64,12 @@ public class PresenceUpdateHandler extends PacketHandler {
         super(api, true, "PRESENCE_UPDATE");
     }
 
+    @Override
+    protected String getCoalesceKey(JSONObject packet) {
+        // presences contain server specific data (roles, nickname)
+        return packet.optString("guild_id") + ":" + packet.getJSONObject("user").getString("id");
+    }
+
     @Override
     public void handle(JSONObject packet) {
         final User user = api.getOrCreateUser(packet.getJSONObject("user"));
@@ -78,22 +93,122 @@ public class PresenceUpdateHandler extends PacketHandler {
             }
         }
 
+        // the status, name and game don't depend on the server
+        UserStatus status = packet.has("status") ? UserStatus.fromString(packet.getString("status")) : null;
+        String name = packet.getJSONObject("user").has("username")
+                ? packet.getJSONObject("user").getString("username") : null;
+        boolean hasGame = packet.has("game");
+        String game = null;
+        if (hasGame
+                && !packet.isNull("game")
+                && packet.getJSONObject("game").has("name")
+                && !packet.getJSONObject("game").isNull("name")) {
+            game = packet.getJSONObject("game").get("name").toString();
+        }
+
+        if (api.getPresenceCoalescingWindow() <= 0) {
+            updatePresence(user, status, name, hasGame, game);
+            return;
+        }
+        // the presence is applied by the lane of the packet, so it doesn't race with the other packets of the server
+        String partitionKey = getPartitionKey(packet);
+        synchronized (pendingPresences) {
+            String pendingKey = partitionKey + ":" + user.getId();
+            PendingPresence pending = pendingPresences.get(pendingKey);
+            if (pending == null) {
+                pending = new PendingPresence(user, partitionKey);
+                pendingPresences.put(pendingKey, pending);
+            }
+            // only keep the latest values
+            if (status != null) {
+                pending.status = status;
+            }
+            if (name != null) {
+                pending.name = name;
+            }
+            if (hasGame) {
+                pending.hasGame = true;
+                pending.game = game;
+            }
+            if (flushTask == null) {
+                flushTask = api.getThreadPool().getScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        // the scheduler also sends the heartbeats, so it must never wait for a full queue
+                        api.getThreadPool().getExecutorService().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    flushPendingPresences();
+                                } catch (Exception e) {
+                                    logger.warn("An error occurred while updating the presences", e);
+                                }
+                            }
+                        });
+                    }
+                }, api.getPresenceCoalescingWindow(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Passes the presences which were collected during the coalescing window to the lanes of their packets.
+     */
+    private void flushPendingPresences() {
+        Map<String, List<PendingPresence>> presencesByPartitionKey = new LinkedHashMap<>();
+        synchronized (pendingPresences) {
+            for (PendingPresence presence : pendingPresences.values()) {
+                List<PendingPresence> presences = presencesByPartitionKey.get(presence.partitionKey);
+                if (presences == null) {
+                    presences = new ArrayList<>();
+                    presencesByPartitionKey.put(presence.partitionKey, presences);
+                }
+                presences.add(presence);
+            }
+            pendingPresences.clear();
+            flushTask = null;
+        }
+        for (Map.Entry<String, List<PendingPresence>> entry : presencesByPartitionKey.entrySet()) {
+            final List<PendingPresence> presences = entry.getValue();
+            executeOnLane(entry.getKey(), new Runnable() {
+                @Override
+                public void run() {
+                    for (PendingPresence presence : presences) {
+                        if (presence.isUnchanged()) {
+                            // e.g. online -> idle -> online within the window
+                            continue;
+                        }
+                        updatePresence(presence.user, presence.status, presence.name, presence.hasGame,
+                                presence.game);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Updates the status, name and game of the user and calls the listeners of the changes.
+     *
+     * @param user The user.
+     * @param status The new status. <code>Null</code> if it's unknown.
+     * @param name The new name. <code>Null</code> if it's unknown.
+     * @param hasGame Whether the game is known or not.
+     * @param game The new game. <code>Null</code> if the user doesn't play a game.
+     */
+    private void updatePresence(final User user, UserStatus status, String name, boolean hasGame, String game) {
         // check status
-        if (packet.has("status")) {
-            UserStatus status = UserStatus.fromString(packet.getString("status"));
+        if (status != null && status != user.getStatus()) {
             final UserStatus oldStatus = user.getStatus();
             ((ImplUser) user).setStatus(status);
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<UserChangeStatusListener> listeners = api.getListeners(UserChangeStatusListener.class);
-                    synchronized (listeners) {
-                        for (UserChangeStatusListener listener : listeners) {
-                            try {
-                                listener.onUserChangeStatus(api, user, oldStatus);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in UserChangeStatusListener!", t);
-                            }
+                    UserChangeStatusListener[] listeners = api.getListenerArray(UserChangeStatusListener.class);
+                    for (UserChangeStatusListener listener : listeners) {
+                        try {
+                            listener.onUserChangeStatus(api, user, oldStatus);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in UserChangeStatusListener!", t);
                         }
                     }
                 }
@@ -101,55 +216,77 @@ public class PresenceUpdateHandler extends PacketHandler {
         }
 
         // check username
-        if (packet.getJSONObject("user").has("username")) {
-            String name = packet.getJSONObject("user").getString("username");
-            if (!user.getName().equals(name)) {
-                final String oldName = user.getName();
-                ((ImplUser) user).setName(name);
-                listenerExecutorService.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        List<UserChangeNameListener> listeners = api.getListeners(UserChangeNameListener.class);
-                        synchronized (listeners) {
-                            for (UserChangeNameListener listener : listeners) {
-                                try {
-                                    listener.onUserChangeName(api, user, oldName);
-                                } catch (Throwable t) {
-                                    logger.warn("Uncaught exception in UserChangeNameListener!", t);
-                                }
-                            }
+        if (name != null && !user.getName().equals(name)) {
+            final String oldName = user.getName();
+            ((ImplUser) user).setName(name);
+            listenerExecutorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    UserChangeNameListener[] listeners = api.getListenerArray(UserChangeNameListener.class);
+                    for (UserChangeNameListener listener : listeners) {
+                        try {
+                            listener.onUserChangeName(api, user, oldName);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in UserChangeNameListener!", t);
                         }
                     }
-                });
-            }
+                }
+            });
         }
 
         // check game
-        if (packet.has("game")) {
-            String game;
-            if (!packet.isNull("game")
-                    && packet.getJSONObject("game").has("name")
-                    && !packet.getJSONObject("game").isNull("name")) {
-                game = packet.getJSONObject("game").get("name").toString();
-            } else {
-                game = null;
-            }
-            String oldGame = user.getGame();
+        if (hasGame) {
+            final String oldGame = user.getGame();
             if ((game == null && oldGame != null)
                     || (game != null && oldGame == null)
                     || (game != null && !game.equals(oldGame))) {
                 ((ImplUser) user).setGame(game);
-                List<UserChangeGameListener> listeners = api.getListeners(UserChangeGameListener.class);
-                synchronized (listeners) {
-                    for (UserChangeGameListener listener : listeners) {
-                        try {
-                            listener.onUserChangeGame(api, user, oldGame);
-                        } catch (Throwable t) {
-                            logger.warn("Uncaught exception in UserChangeGameListener!", t);
+                listenerExecutorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        UserChangeGameListener[] listeners = api.getListenerArray(UserChangeGameListener.class);
+                        for (UserChangeGameListener listener : listeners) {
+                            try {
+                                listener.onUserChangeGame(api, user, oldGame);
+                            } catch (Throwable t) {
+                                logger.warn("Uncaught exception in UserChangeGameListener!", t);
+                            }
                         }
                     }
-                }
+                });
+            }
+        }
+    }
+
+    /**
+     * The latest presence of a user during the coalescing window.
+     */
+    private static class PendingPresence {
+        private final User user;
+        private final String partitionKey;
+        private UserStatus status = null;
+        private String name = null;
+        private boolean hasGame = false;
+        private String game = null;
+
+        private PendingPresence(User user, String partitionKey) {
+            this.user = user;
+            this.partitionKey = partitionKey;
+        }
+
+        /**
+         * Checks if the coalesced presence equals the cached state of the user.
+         *
+         * @return Whether the coalesced presence equals the cached state of the user or not.
+         */
+        private boolean isUnchanged() {
+            if (status != null && status != user.getStatus()) {
+                return false;
+            }
+            if (name != null && !name.equals(user.getName())) {
+                return false;
             }
+            return !hasGame || (game == null ? user.getGame() == null : game.equals(user.getGame()));
         }
     }
 
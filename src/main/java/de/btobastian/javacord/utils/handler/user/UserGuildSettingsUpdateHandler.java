@@ -36,6 +36,11 @@ public class UserGuildSettingsUpdateHandler extends PacketHandler {
         super(api, true, "USER_GUILD_SETTINGS_UPDATE");
     }
 
+    @Override
+    public boolean isRequired() {
+        return false; // we don't do anything with this packet
+    }
+
     @Override
     public void handle(JSONObject packet) {
         // NOP
@@ -18,7 +18,6 @@
  */
 package de.btobastian.javacord.utils.handler.voice;
 
-import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import org.json.JSONException;
@@ -84,14 +83,12 @@ public class VoiceStateUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<UserJoinVoiceChannelListener> listeners = api.getListeners(UserJoinVoiceChannelListener.class);
-                    synchronized (listeners) {
-                        for (UserJoinVoiceChannelListener listener : listeners) {
-                            try {
-                                listener.onUserJoinVoiceChannel(api, userPassed, channel);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in UserJoinVoiceChannelListener!", t);
-                            }
+                    UserJoinVoiceChannelListener[] listeners = api.getListenerArray(UserJoinVoiceChannelListener.class);
+                    for (UserJoinVoiceChannelListener listener : listeners) {
+                        try {
+                            listener.onUserJoinVoiceChannel(api, userPassed, channel);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in UserJoinVoiceChannelListener!", t);
                         }
                     }
                 }
@@ -104,15 +101,13 @@ public class VoiceStateUpdateHandler extends PacketHandler {
             listenerExecutorService.submit(new Runnable() {
                 @Override
                 public void run() {
-                    List<UserLeaveVoiceChannelListener> listeners = api
-                            .getListeners(UserLeaveVoiceChannelListener.class);
-                    synchronized (listeners) {
-                        for (UserLeaveVoiceChannelListener listener : listeners) {
-                            try {
-                                listener.onUserLeaveVoiceChannel(api, userPassed);
-                            } catch (Throwable t) {
-                                logger.warn("Uncaught exception in UserLeaveVoiceChannelListener!", t);
-                            }
+                    UserLeaveVoiceChannelListener[] listeners =
+                            api.getListenerArray(UserLeaveVoiceChannelListener.class);
+                    for (UserLeaveVoiceChannelListener listener : listeners) {
+                        try {
+                            listener.onUserLeaveVoiceChannel(api, userPassed);
+                        } catch (Throwable t) {
+                            logger.warn("Uncaught exception in UserLeaveVoiceChannelListener!", t);
                         }
                     }
                 }
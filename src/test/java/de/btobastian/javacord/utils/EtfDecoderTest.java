@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static de.btobastian.javacord.utils.EtfFixtures.assertJsonEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that etf terms are decoded into the same objects as the equivalent json packets.
+ */
+public class EtfDecoderTest {
+
+    @Test
+    public void testRecordedPacketsMatchJson() throws Exception {
+        for (String name : EtfFixtures.PACKETS) {
+            Object decoded = EtfDecoder.decode(EtfFixtures.readEtf(name));
+            assertJsonEquals(name, new JSONObject(EtfFixtures.readJson(name)), decoded);
+        }
+    }
+
+    @Test
+    public void testSkipValueSkipsWholeTerm() throws Exception {
+        for (String name : EtfFixtures.PACKETS) {
+            byte[] etf = EtfFixtures.readEtf(name);
+            EtfDecoder reader = EtfDecoder.forTerm(etf, 0, etf.length);
+            reader.readValue();
+            EtfDecoder skipper = EtfDecoder.forTerm(etf, 0, etf.length);
+            skipper.skipValue();
+            assertEquals(name, reader.getEnd(), reader.getPosition());
+            assertEquals(name, reader.getPosition(), skipper.getPosition());
+        }
+    }
+
+    @Test
+    public void testSnowflakes() {
+        // 157862224206102529 as small big int (8 digits, little endian)
+        assertEquals("157862224206102529", EtfDecoder.decode(bytes(131, 110, 8, 0, 1, 0, 66, 69, 219, 214, 48, 2)));
+        assertEquals("0", EtfDecoder.decode(bytes(131, 110, 0, 0)));
+        assertEquals("-300", EtfDecoder.decode(bytes(131, 110, 2, 1, 44, 1)));
+    }
+
+    @Test
+    public void testBigIntegersOutsideLongRange() {
+        // 2^63 + 1 doesn't fit into a long
+        assertEquals("9223372036854775809", EtfDecoder.decode(bytes(131, 110, 8, 0, 1, 0, 0, 0, 0, 0, 0, 128)));
+        assertEquals("-18446744073709551616", EtfDecoder.decode(bytes(131, 110, 9, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1)));
+        // large big int with 9 digits
+        assertEquals("18446744073709551617", EtfDecoder.decode(bytes(131, 111, 0, 0, 0, 9, 0, 1, 0, 0, 0, 0, 0, 0, 0, 1)));
+    }
+
+    @Test
+    public void testIntegers() {
+        assertEquals(255, EtfDecoder.decode(bytes(131, 97, 255)));
+        assertEquals(41250, EtfDecoder.decode(bytes(131, 98, 0, 0, 161, 34)));
+        assertEquals(-1, EtfDecoder.decode(bytes(131, 98, 255, 255, 255, 255)));
+        assertEquals(0.75, (Double) EtfDecoder.decode(bytes(131, 70, 63, 232, 0, 0, 0, 0, 0, 0)), 0);
+    }
+
+    @Test
+    public void testAtoms() {
+        int[][] headers = { { 100, 0 }, { 115 }, { 118, 0 }, { 119 } };
+        for (int[] header : headers) {
+            assertSame(JSONObject.NULL, EtfDecoder.decode(atom(header, "nil")));
+            assertSame(JSONObject.NULL, EtfDecoder.decode(atom(header, "null")));
+            assertEquals(Boolean.TRUE, EtfDecoder.decode(atom(header, "true")));
+            assertEquals(Boolean.FALSE, EtfDecoder.decode(atom(header, "false")));
+            assertEquals("online", EtfDecoder.decode(atom(header, "online")));
+        }
+    }
+
+    @Test
+    public void testEmptyLists() {
+        Object empty = EtfDecoder.decode(bytes(131, 106));
+        assertTrue(empty instanceof JSONArray);
+        assertEquals(0, ((JSONArray) empty).length());
+
+        // {"roles": []}
+        JSONObject object = (JSONObject) EtfDecoder.decode(
+                bytes(131, 116, 0, 0, 0, 1, 119, 5, 'r', 'o', 'l', 'e', 's', 106));
+        assertEquals(0, object.getJSONArray("roles").length());
+    }
+
+    @Test
+    public void testNestedListsAndMaps() {
+        // [1, [{"a": []}], "b"]
+        JSONArray array = (JSONArray) EtfDecoder.decode(bytes(131,
+                108, 0, 0, 0, 3,
+                97, 1,
+                108, 0, 0, 0, 1, 116, 0, 0, 0, 1, 119, 1, 'a', 106, 106,
+                109, 0, 0, 0, 1, 'b',
+                106));
+        assertJsonEquals("nested", new JSONArray("[1, [{\"a\": []}], \"b\"]"), array);
+    }
+
+    @Test
+    public void testStringsAndTuples() {
+        // erlang strings are lists of small integers
+        assertJsonEquals("string", new JSONArray("[1, 2, 3]"), EtfDecoder.decode(bytes(131, 107, 0, 3, 1, 2, 3)));
+        assertJsonEquals("tuple", new JSONArray("[1, \"x\"]"),
+                EtfDecoder.decode(bytes(131, 104, 2, 97, 1, 109, 0, 0, 0, 1, 'x')));
+        // binaries are utf-8
+        assertEquals("\u2713", EtfDecoder.decode(bytes(131, 109, 0, 0, 0, 3, 0xE2, 0x9C, 0x93)));
+    }
+
+    @Test
+    public void testIsNextNil() {
+        byte[] nil = bytes(131, 119, 3, 'n', 'i', 'l');
+        assertTrue(EtfDecoder.forTerm(nil, 0, nil.length).isNextNil());
+        byte[] atom = bytes(131, 119, 4, 't', 'r', 'u', 'e');
+        EtfDecoder decoder = EtfDecoder.forTerm(atom, 0, atom.length);
+        assertFalse(decoder.isNextNil());
+        assertEquals(1, decoder.getPosition()); // not consumed
+    }
+
+    @Test(expected = JSONException.class)
+    public void testUnknownVersion() {
+        EtfDecoder.decode(bytes(130, 106));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testUnsupportedTag() {
+        EtfDecoder.decode(bytes(131, 101, 0));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testTruncatedTerm() {
+        EtfDecoder.decode(bytes(131, 109, 0, 0, 0, 5, 'a'));
+    }
+
+    /**
+     * Creates a byte array from the given unsigned values.
+     *
+     * @param values The values.
+     * @return The byte array.
+     */
+    static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Encodes an atom with the given header.
+     *
+     * @param header The tag and the length bytes before the last length byte.
+     * @param name The name of the atom.
+     * @return The encoded term.
+     */
+    private static byte[] atom(int[] header, String name) {
+        byte[] bytes = new byte[2 + header.length + name.length()];
+        bytes[0] = (byte) 131;
+        for (int i = 0; i < header.length; i++) {
+            bytes[1 + i] = (byte) header[i];
+        }
+        bytes[1 + header.length] = (byte) name.length();
+        for (int i = 0; i < name.length(); i++) {
+            bytes[2 + header.length + i] = (byte) name.charAt(i);
+        }
+        return bytes;
+    }
+
+}
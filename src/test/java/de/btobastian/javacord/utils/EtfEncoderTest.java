@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static de.btobastian.javacord.utils.EtfDecoderTest.bytes;
+import static de.btobastian.javacord.utils.EtfFixtures.assertJsonEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that encoded packets decode to the original json objects.
+ */
+public class EtfEncoderTest {
+
+    @Test
+    public void testRecordedPacketsRoundTrip() throws Exception {
+        for (String name : EtfFixtures.PACKETS) {
+            JSONObject json = new JSONObject(EtfFixtures.readJson(name));
+            assertJsonEquals(name, json, EtfDecoder.decode(EtfEncoder.encode(json)));
+        }
+    }
+
+    @Test
+    public void testEncodedBytes() {
+        assertArrayEquals(bytes(131, 116, 0, 0, 0, 1, 109, 0, 0, 0, 1, 'd', 119, 3, 'n', 'i', 'l'),
+                EtfEncoder.encode(new JSONObject().put("d", JSONObject.NULL)));
+        assertArrayEquals(bytes(131, 116, 0, 0, 0, 1, 109, 0, 0, 0, 1, 'd', 106),
+                EtfEncoder.encode(new JSONObject().put("d", new JSONArray())));
+        assertArrayEquals(bytes(131, 116, 0, 0, 0, 1, 109, 0, 0, 0, 2, 'o', 'p', 98, 0, 0, 1, 0),
+                EtfEncoder.encode(new JSONObject().put("op", 256)));
+    }
+
+    @Test
+    public void testValues() {
+        JSONObject packet = new JSONObject()
+                .put("snowflake", 157862224206102529L)
+                .put("negative", -5)
+                .put("small", 7)
+                .put("float", 0.5)
+                .put("afk", false)
+                .put("compress", true)
+                .put("game", JSONObject.NULL)
+                .put("guild_id", new String[] { "81384788765712384", "290926798626357250" })
+                .put("nested", new JSONArray().put(new JSONObject().put("a", new JSONArray())).put(new JSONArray()));
+        JSONObject decoded = (JSONObject) EtfDecoder.decode(EtfEncoder.encode(packet));
+        assertEquals("157862224206102529", decoded.get("snowflake"));
+        assertEquals(-5, decoded.get("negative"));
+        assertEquals(7, decoded.get("small"));
+        assertEquals(0.5, decoded.getDouble("float"), 0);
+        assertEquals(Boolean.FALSE, decoded.get("afk"));
+        assertEquals(Boolean.TRUE, decoded.get("compress"));
+        assertSame(JSONObject.NULL, decoded.get("game"));
+        assertJsonEquals("guild_id", new JSONArray("[\"81384788765712384\", \"290926798626357250\"]"),
+                decoded.get("guild_id"));
+        assertJsonEquals("nested", new JSONArray("[{\"a\": []}, []]"), decoded.get("nested"));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The recorded gateway packets in <code>src/test/resources/etf</code>. Every packet exists as etf term
+ * (<code>.etf</code>) and as the equivalent json packet (<code>.json</code>).
+ */
+class EtfFixtures {
+
+    /**
+     * The names of all recorded packets.
+     */
+    static final String[] PACKETS = { "hello", "ready", "message_create", "guild_create", "presence_update" };
+
+    private EtfFixtures() { }
+
+    /**
+     * Reads the etf term of a recorded packet.
+     *
+     * @param name The name of the packet.
+     * @return The etf term (including the version byte).
+     * @throws IOException If the packet can't be read.
+     */
+    static byte[] readEtf(String name) throws IOException {
+        return Resources.toByteArray(Resources.getResource("etf/" + name + ".etf"));
+    }
+
+    /**
+     * Reads the json form of a recorded packet.
+     *
+     * @param name The name of the packet.
+     * @return The json packet.
+     * @throws IOException If the packet can't be read.
+     */
+    static String readJson(String name) throws IOException {
+        return Resources.toString(Resources.getResource("etf/" + name + ".json"), Charsets.UTF_8);
+    }
+
+    /**
+     * Asserts that two decoded values are equal. Objects and arrays are compared recursively, numbers by value.
+     *
+     * @param path The path of the values, used in failure messages.
+     * @param expected The expected value.
+     * @param actual The actual value.
+     */
+    static void assertJsonEquals(String path, Object expected, Object actual) {
+        if (expected instanceof JSONObject) {
+            assertTrue(path + " is no object: " + actual, actual instanceof JSONObject);
+            JSONObject expectedObject = (JSONObject) expected;
+            JSONObject actualObject = (JSONObject) actual;
+            assertEquals(path + " has a different amount of keys", expectedObject.length(), actualObject.length());
+            Iterator<?> keys = expectedObject.keys();
+            while (keys.hasNext()) {
+                String key = (String) keys.next();
+                if (!actualObject.has(key)) {
+                    fail(path + "." + key + " is missing");
+                }
+                assertJsonEquals(path + "." + key, expectedObject.get(key), actualObject.get(key));
+            }
+        } else if (expected instanceof JSONArray) {
+            assertTrue(path + " is no array: " + actual, actual instanceof JSONArray);
+            JSONArray expectedArray = (JSONArray) expected;
+            JSONArray actualArray = (JSONArray) actual;
+            assertEquals(path + " has a different length", expectedArray.length(), actualArray.length());
+            for (int i = 0; i < expectedArray.length(); i++) {
+                assertJsonEquals(path + "[" + i + "]", expectedArray.get(i), actualArray.get(i));
+            }
+        } else if (expected instanceof Number && actual instanceof Number) {
+            if (expected instanceof Double || expected instanceof Float) {
+                assertEquals(path, ((Number) expected).doubleValue(), ((Number) actual).doubleValue(), 0);
+            } else {
+                assertEquals(path, ((Number) expected).longValue(), ((Number) actual).longValue());
+            }
+        } else {
+            assertEquals(path, expected, actual);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static de.btobastian.javacord.utils.EtfDecoderTest.bytes;
+import static de.btobastian.javacord.utils.EtfFixtures.assertJsonEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the envelopes of etf and json packets are scanned the same way.
+ */
+public class GatewayEnvelopeTest {
+
+    @Test
+    public void testEtfEnvelopesMatchJson() throws Exception {
+        for (String name : EtfFixtures.PACKETS) {
+            byte[] etf = EtfFixtures.readEtf(name);
+            String json = EtfFixtures.readJson(name);
+            GatewayEnvelope etfEnvelope = GatewayEnvelope.scanEtf(etf, 0, etf.length);
+            GatewayEnvelope jsonEnvelope = GatewayEnvelope.scan(json);
+            byte[] utf8 = json.getBytes(Charset.forName("UTF-8"));
+            GatewayEnvelope utf8Envelope = GatewayEnvelope.scan(utf8, 0, utf8.length);
+            for (GatewayEnvelope envelope : new GatewayEnvelope[] { etfEnvelope, utf8Envelope }) {
+                assertEquals(name, jsonEnvelope.getOp(), envelope.getOp());
+                assertEquals(name, jsonEnvelope.getSequence(), envelope.getSequence());
+                assertEquals(name, jsonEnvelope.getType(), envelope.getType());
+                assertEquals(name, jsonEnvelope.hasData(), envelope.hasData());
+                assertJsonEquals(name, jsonEnvelope.getData(), envelope.getData());
+            }
+        }
+    }
+
+    @Test
+    public void testEtfEnvelopeWithoutSequenceAndType() throws Exception {
+        byte[] etf = EtfFixtures.readEtf("hello");
+        GatewayEnvelope envelope = GatewayEnvelope.scanEtf(etf, 0, etf.length);
+        assertEquals(10, envelope.getOp());
+        assertEquals(-1, envelope.getSequence());
+        assertNull(envelope.getType());
+        assertEquals(41250, envelope.getData().getInt("heartbeat_interval"));
+    }
+
+    @Test
+    public void testEtfEnvelopeAtOffset() throws Exception {
+        byte[] etf = EtfFixtures.readEtf("message_create");
+        byte[] buffer = new byte[etf.length + 10];
+        System.arraycopy(etf, 0, buffer, 7, etf.length);
+        GatewayEnvelope envelope = GatewayEnvelope.scanEtf(buffer, 7, etf.length);
+        assertEquals("MESSAGE_CREATE", envelope.getType());
+        assertEquals(42, envelope.getSequence());
+        assertEquals("334385199974967042", envelope.getData().getString("id"));
+    }
+
+    @Test
+    public void testEtfEnvelopeWithoutDataObject() {
+        // {"op": 11, "d": nil}
+        byte[] etf = bytes(131, 116, 0, 0, 0, 2, 119, 2, 'o', 'p', 97, 11, 119, 1, 'd', 119, 3, 'n', 'i', 'l');
+        GatewayEnvelope envelope = GatewayEnvelope.scanEtf(etf, 0, etf.length);
+        assertEquals(11, envelope.getOp());
+        assertFalse(envelope.hasData());
+    }
+
+    @Test
+    public void testCompressedEtfEnvelope() throws Exception {
+        // the guild create packet is a compressed term
+        byte[] etf = EtfFixtures.readEtf("guild_create");
+        assertEquals(80, etf[1] & 0xFF);
+        GatewayEnvelope envelope = GatewayEnvelope.scanEtf(etf, 0, etf.length);
+        assertTrue(envelope.hasData());
+        assertEquals(2, envelope.getData().getJSONArray("members").length());
+    }
+
+}
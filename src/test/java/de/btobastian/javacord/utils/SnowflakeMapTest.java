@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 Bastian Oppermann
+ *
+ * This file is part of Javacord.
+ *
+ * Javacord is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser general Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Javacord is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this program; if not, see <http://www.gnu.org/licenses/>.
+ */
+package de.btobastian.javacord.utils;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the lookups and changes of the snowflake map.
+ */
+public class SnowflakeMapTest {
+
+    private static final long BASE_ID = 157862224206102529L;
+
+    @Test
+    public void testPutGetRemove() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+        assertNull(map.get(BASE_ID));
+        assertNull(map.put(BASE_ID, "a"));
+        assertEquals("a", map.put("157862224206102529", "b"));
+        assertEquals("b", map.get(BASE_ID));
+        assertEquals("b", map.get("157862224206102529"));
+        assertEquals("b", map.putIfAbsent(BASE_ID, "c"));
+        assertEquals(1, map.size());
+
+        assertFalse(map.remove(BASE_ID, "c"));
+        assertTrue(map.remove(BASE_ID, "b"));
+        assertNull(map.get(BASE_ID));
+        assertTrue(map.isEmpty());
+
+        // the removed id can be added again
+        assertNull(map.putIfAbsent(BASE_ID, "d"));
+        assertEquals("d", map.remove("157862224206102529"));
+    }
+
+    @Test
+    public void testInvalidIds() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+        map.put(BASE_ID, "a");
+        assertNull(map.get("abc"));
+        assertNull(map.get((String) null));
+        assertNull(map.get("99999999999999999999"));
+        assertNull(map.get(0));
+        assertNull(map.remove("-1"));
+        assertFalse(map.containsKey(""));
+        assertEquals(1, map.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutInvalidId() {
+        new SnowflakeMap<String>().put("abc", "a");
+    }
+
+    @Test
+    public void testGrowAndShrink() {
+        SnowflakeMap<Long> map = new SnowflakeMap<>();
+        for (long i = 0; i < 10000; i++) {
+            map.put(BASE_ID + (i << 22), i);
+        }
+        assertEquals(10000, map.size());
+        for (long i = 0; i < 10000; i += 2) {
+            assertEquals(Long.valueOf(i), map.remove(BASE_ID + (i << 22)));
+        }
+        // removed ids are dropped when the table is rebuilt
+        for (long i = 10000; i < 30000; i++) {
+            map.put(BASE_ID + (i << 22), i);
+            map.remove(BASE_ID + (i << 22));
+        }
+        assertEquals(5000, map.size());
+        Set<Long> values = new HashSet<>(map.values());
+        assertEquals(5000, values.size());
+        for (long i = 0; i < 10000; i++) {
+            Long value = map.get(BASE_ID + (i << 22));
+            if (i % 2 == 0) {
+                assertNull(value);
+            } else {
+                assertEquals(Long.valueOf(i), value);
+                assertTrue(values.contains(i));
+            }
+        }
+        assertEquals(5000, map.values().size());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final SnowflakeMap<Long> map = new SnowflakeMap<>();
+        final long stable = BASE_ID + 1;
+        map.put(stable, stable);
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<String> error = new AtomicReference<>();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (done.getCount() > 0) {
+                    // an entity which is never removed is never missed, even while the table is rebuilt
+                    Long value = map.get(stable);
+                    if (value == null || value != stable) {
+                        error.set("Missed the stable entity: " + value);
+                        return;
+                    }
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (long i = 0; i < 200000; i++) {
+                long id = BASE_ID + ((i + 2) << 22);
+                map.put(id, id);
+                if (i % 3 != 0) {
+                    assertEquals(id, map.remove(id).longValue());
+                }
+            }
+        } finally {
+            done.countDown();
+            reader.join();
+        }
+        assertNull(error.get());
+        assertEquals(200000 / 3 + 2, map.size());
+    }
+
+}